@@ -0,0 +1,312 @@
+package First;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// Compact binary form of a training file, read through memory mapping so
+// that loading does no parsing, only bulk copies of whole columns into the
+// classifier's records. Made once from a text training file by
+// DatasetConverter (or a classifier's saveBinaryData).
+//
+// layout, little endian:
+//   header (64 bytes): magic, version, number of records, attributes,
+//                      classes, attribute type, neighbors, rule length, rule
+//   one column per attribute: n doubles (knn) or n ints (decision tree)
+//   class column: n ints
+//
+// Every column is mapped on its own, so a column may be up to 2 GB. A
+// loader opens the file for the attribute type it expects; a file of the
+// other type, or with a corrupt or truncated header, is an IOException.
+
+public class BinaryDataset {
+
+	/***************************************************************************************************/
+
+	private static final int MAGIC = 0x4D4C4453; // "MLDS"
+	private static final int VERSION = 1;
+	private static final int HEADER_SIZE = 64;
+	private static final int RULE_SIZE = 32; // bytes reserved for majority rule
+	private static final int DOUBLE_ATTRIBUTES = 1;
+	private static final int INT_ATTRIBUTES = 2;
+	private static final int WRITE_BUFFER_SIZE = 1 << 16;
+
+	/***************************************************************************************************/
+
+	private FileChannel channel; // mapped file
+	private int numberRecords; // number of records
+	private int numberAttributes; // number of attributes
+	private int numberClasses; // number of classes
+	private int numberNeighbors; // nearest neighbors, 0 if not given
+	private String majorityRule; // majority rule, empty if not given
+	private int attributeType; // double or int attributes
+	private DoubleBuffer[] doubleColumns; // mapped double attribute columns
+	private IntBuffer[] intColumns; // mapped int attribute columns
+	private IntBuffer classColumn; // mapped class column
+
+	/***************************************************************************************************/
+
+	// Constructor of dataset, maps given binary file of given attribute type
+	private BinaryDataset(String fileName, int expectedType) throws IOException {
+		channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+
+		try {
+			readHeader(fileName, expectedType);
+			mapColumns();
+		} catch (IOException | RuntimeException e) {
+			// file is not used, do not leave it open
+			channel.close();
+			throw e;
+		}
+	}
+
+	/***************************************************************************************************/
+
+	// Method maps binary file of double attributes, made by a nearest
+	// neighbor classifier
+	public static BinaryDataset openDoubles(String fileName) throws IOException {
+		return new BinaryDataset(fileName, DOUBLE_ATTRIBUTES);
+	}
+
+	// Method maps binary file of int attributes, made by a decision tree
+	public static BinaryDataset openInts(String fileName) throws IOException {
+		return new BinaryDataset(fileName, INT_ATTRIBUTES);
+	}
+
+	/***************************************************************************************************/
+
+	// Method reads and checks header, so a corrupt or foreign file is
+	// reported instead of read wrong
+	private void readHeader(String fileName, int expectedType) throws IOException {
+		if (channel.size() < HEADER_SIZE)
+			throw new IOException("Error: " + fileName + " is not a binary dataset file.");
+
+		ByteBuffer header = map(0, HEADER_SIZE);
+		if (header.getInt() != MAGIC || header.getInt() != VERSION)
+			throw new IOException("Error: " + fileName + " is not a binary dataset file.");
+
+		numberRecords = header.getInt();
+		numberAttributes = header.getInt();
+		numberClasses = header.getInt();
+		attributeType = header.getInt();
+		numberNeighbors = header.getInt();
+		int ruleLength = header.getInt();
+
+		if (numberRecords < 0 || numberAttributes < 0 || numberClasses < 0 || ruleLength < 0
+				|| ruleLength > RULE_SIZE)
+			throw new IOException("Error: header of " + fileName + " is corrupt.");
+
+		if (attributeType != expectedType)
+			throw new IOException("Error: " + fileName + " holds " + typeName(attributeType) + " attributes, "
+					+ typeName(expectedType) + " attributes expected.");
+
+		byte[] rule = new byte[ruleLength];
+		header.get(rule);
+		majorityRule = new String(rule, StandardCharsets.UTF_8);
+
+		long size = HEADER_SIZE + (long) numberRecords * numberAttributes * width() + (long) numberRecords * 4;
+		if (channel.size() < size)
+			throw new IOException("Error: " + fileName + " is truncated.");
+	}
+
+	/***************************************************************************************************/
+
+	// Method maps each attribute column and the class column
+	private void mapColumns() throws IOException {
+		long offset = HEADER_SIZE;
+		long columnSize = (long) numberRecords * width();
+
+		if (attributeType == DOUBLE_ATTRIBUTES)
+			doubleColumns = new DoubleBuffer[numberAttributes];
+		else
+			intColumns = new IntBuffer[numberAttributes];
+
+		for (int j = 0; j < numberAttributes; j++) {
+			ByteBuffer column = map(offset, columnSize);
+			if (attributeType == DOUBLE_ATTRIBUTES)
+				doubleColumns[j] = column.asDoubleBuffer();
+			else
+				intColumns[j] = column.asIntBuffer();
+			offset += columnSize;
+		}
+
+		classColumn = map(offset, (long) numberRecords * 4).asIntBuffer();
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns bytes of an attribute value
+	private int width() {
+		return attributeType == DOUBLE_ATTRIBUTES ? 8 : 4;
+	}
+
+	// Method returns name of attribute type for messages
+	private static String typeName(int type) {
+		if (type == DOUBLE_ATTRIBUTES)
+			return "double (nearest neighbor)";
+		if (type == INT_ATTRIBUTES)
+			return "int (decision tree)";
+
+		return "unknown";
+	}
+
+	/***************************************************************************************************/
+
+	// Method maps a region of the file read only
+	private ByteBuffer map(long offset, long size) throws IOException {
+		return channel.map(FileChannel.MapMode.READ_ONLY, offset, size).order(ByteOrder.LITTLE_ENDIAN);
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns number of records
+	public int getNumberRecords() {
+		return numberRecords;
+	}
+
+	// Method returns number of attributes
+	public int getNumberAttributes() {
+		return numberAttributes;
+	}
+
+	// Method returns number of classes
+	public int getNumberClasses() {
+		return numberClasses;
+	}
+
+	// Method returns number of nearest neighbors, 0 if not given
+	public int getNumberNeighbors() {
+		return numberNeighbors;
+	}
+
+	// Method returns majority rule, empty if not given
+	public String getMajorityRule() {
+		return majorityRule;
+	}
+
+	/***************************************************************************************************/
+
+	// Method copies attribute column (0 based) of all records into values,
+	// file of double attributes
+	public void getColumn(int column, double[] values) {
+		doubleColumns[column].get(0, values, 0, numberRecords);
+	}
+
+	// Method copies attribute column (0 based) of all records into values,
+	// file of int attributes
+	public void getColumn(int column, int[] values) {
+		intColumns[column].get(0, values, 0, numberRecords);
+	}
+
+	/***************************************************************************************************/
+
+	// Method copies classes of all records into values
+	public void getClassNames(int[] values) {
+		classColumn.get(0, values, 0, numberRecords);
+	}
+
+	/***************************************************************************************************/
+
+	// Method closes the file, mapped columns stay readable until collected
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/***************************************************************************************************/
+
+	// Method writes a dataset of double attributes (knn), columns[j][i] is
+	// attribute j of record i
+	public static void write(String fileName, int numberClasses, int numberNeighbors, String majorityRule,
+			double[][] columns, int[] classes) throws IOException {
+		FileChannel out = create(fileName, classes.length, columns.length, numberClasses, DOUBLE_ATTRIBUTES,
+				numberNeighbors, majorityRule);
+		ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+		for (double[] column : columns)
+			for (double value : column) {
+				if (buffer.remaining() < 8)
+					flush(out, buffer);
+				buffer.putDouble(value);
+			}
+
+		writeClasses(out, buffer, classes);
+	}
+
+	/***************************************************************************************************/
+
+	// Method writes a dataset of int attributes (decision tree), columns[j][i]
+	// is attribute j of record i
+	public static void write(String fileName, int numberClasses, int[][] columns, int[] classes)
+			throws IOException {
+		FileChannel out = create(fileName, classes.length, columns.length, numberClasses, INT_ATTRIBUTES, 0, "");
+		ByteBuffer buffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+
+		for (int[] column : columns)
+			for (int value : column) {
+				if (buffer.remaining() < 4)
+					flush(out, buffer);
+				buffer.putInt(value);
+			}
+
+		writeClasses(out, buffer, classes);
+	}
+
+	/***************************************************************************************************/
+
+	// Method creates file and writes header
+	private static FileChannel create(String fileName, int numberRecords, int numberAttributes, int numberClasses,
+			int attributeType, int numberNeighbors, String majorityRule) throws IOException {
+		byte[] rule = (majorityRule == null ? "" : majorityRule).getBytes(StandardCharsets.UTF_8);
+		if (rule.length > RULE_SIZE)
+			throw new IOException("Error: majority rule " + majorityRule + " is too long.");
+
+		FileChannel out = FileChannel.open(Paths.get(fileName), StandardOpenOption.CREATE,
+				StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+
+		ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+		header.putInt(MAGIC);
+		header.putInt(VERSION);
+		header.putInt(numberRecords);
+		header.putInt(numberAttributes);
+		header.putInt(numberClasses);
+		header.putInt(attributeType);
+		header.putInt(numberNeighbors);
+		header.putInt(rule.length);
+		header.put(rule);
+		header.position(HEADER_SIZE);
+		flush(out, header);
+
+		return out;
+	}
+
+	/***************************************************************************************************/
+
+	// Method writes class column and closes file
+	private static void writeClasses(FileChannel out, ByteBuffer buffer, int[] classes) throws IOException {
+		for (int value : classes) {
+			if (buffer.remaining() < 4)
+				flush(out, buffer);
+			buffer.putInt(value);
+		}
+
+		flush(out, buffer);
+		out.close();
+	}
+
+	/***************************************************************************************************/
+
+	// Method writes buffered bytes to file
+	private static void flush(FileChannel out, ByteBuffer buffer) throws IOException {
+		buffer.flip();
+		while (buffer.hasRemaining())
+			out.write(buffer);
+		buffer.clear();
+	}
+
+}
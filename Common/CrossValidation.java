@@ -0,0 +1,296 @@
+package First;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// k-fold cross validation over the records a classifier has loaded. The
+// records are split into k folds once; each fold is classified by a model
+// trained on the other folds, and the folds run concurrently on a fork/join
+// pool over the same in-memory records. Stratified mode deals the records of
+// every class round robin over the folds, so each fold keeps the class
+// proportions of the whole training set. Folds are drawn from a seeded
+// shuffle, so a run is repeatable.
+//
+// mode: plain      - shuffle all records, deal them over the folds
+//       stratified - shuffle the records of each class, deal class by class
+
+public class CrossValidation {
+
+	/***************************************************************************************************/
+
+	// Classifier whose loaded records are validated
+	public interface Model {
+
+		// Method returns number of loaded records
+		int getNumberRecords();
+
+		// Method returns class of loaded record
+		int getClassName(int record);
+
+		// Method finds classes of the test records using only the training
+		// records as training data, called concurrently for different folds
+		int[] classifyFold(int[] training, int[] test);
+	}
+
+	/***************************************************************************************************/
+
+	// Fold task, validates a range of folds
+	@SuppressWarnings("serial")
+	private class FoldTask extends RecursiveAction {
+		private Model model; // classifier validated
+		private int start; // first fold of range
+		private int end; // one past last fold of range
+
+		// Constructor of task
+		private FoldTask(Model model, int start, int end) {
+			this.model = model;
+			this.start = start;
+			this.end = end;
+		}
+
+		// validate a single fold directly, otherwise split range in halves
+		protected void compute() {
+			if (end - start == 1)
+				validateFold(model, start);
+			else {
+				int middle = (start + end) >>> 1;
+				invokeAll(new FoldTask(model, start, middle), new FoldTask(model, middle, end));
+			}
+		}
+	}
+
+	/***************************************************************************************************/
+
+	private static final long DEFAULT_SEED = 1;
+
+	/***************************************************************************************************/
+
+	private int numberFolds; // number of folds asked for
+	private String mode; // fold assignment: plain, stratified
+	private long seed; // seed of the shuffle
+	private int parallelism; // number of threads running folds
+	private int[][] folds; // records of each fold
+	private int[] foldErrors; // misclassified records of each fold
+	private long elapsedTime; // wall clock time of last run in nanoseconds
+
+	/***************************************************************************************************/
+
+	// Constructor of cross validation with given number of folds and mode
+	public CrossValidation(int numberFolds, String mode) {
+		this.numberFolds = numberFolds;
+
+		if (mode.equals("stratified"))
+			this.mode = "stratified";
+		else // in case of mis-input
+			this.mode = "plain";
+
+		seed = DEFAULT_SEED;
+		parallelism = 1; // run folds on calling thread
+		folds = null;
+		foldErrors = null;
+		elapsedTime = 0;
+	}
+
+	/***************************************************************************************************/
+
+	// Method to reset seed of the shuffle that assigns records to folds
+	public void setSeed(long seed) {
+		this.seed = seed;
+	}
+
+	/***************************************************************************************************/
+
+	// Method to reset number of threads running folds, 1 runs them on the
+	// calling thread
+	public void setParallelism(int threads) {
+
+		if (threads > 1)
+			parallelism = threads;
+		// in case of mis-input
+		else
+			parallelism = 1;
+	}
+
+	/***************************************************************************************************/
+
+	// Method validates the records loaded by given model, number of folds is
+	// clamped to [2, number of records]. At least 2 records are needed, so
+	// that no fold is empty
+	public void run(Model model) {
+		long start = System.nanoTime();
+
+		int numberRecords = model.getNumberRecords();
+		if (numberRecords < 2)
+			throw new IllegalArgumentException("Error: cross validation needs at least 2 records.");
+
+		int k = Math.max(2, Math.min(numberFolds, numberRecords));
+
+		assignFolds(model, numberRecords, k);
+		foldErrors = new int[k];
+
+		// run every fold, in parallel if more than one thread is configured
+		if (parallelism <= 1) {
+			for (int f = 0; f < k; f++)
+				validateFold(model, f);
+		} else {
+			ForkJoinPool pool = new ForkJoinPool(parallelism);
+			try {
+				pool.invoke(new FoldTask(model, 0, k));
+			} finally {
+				pool.shutdown();
+			}
+		}
+
+		elapsedTime = System.nanoTime() - start;
+	}
+
+	/***************************************************************************************************/
+
+	// Method deals shuffled records round robin over the folds
+	private void assignFolds(Model model, int numberRecords, int k) {
+		Random random = new Random(seed);
+		int[] order = new int[numberRecords];
+
+		if (mode.equals("stratified")) {
+			// range of class values, a class value indexes its group
+			int minClass = Integer.MAX_VALUE;
+			int maxClass = Integer.MIN_VALUE;
+			for (int i = 0; i < numberRecords; i++) {
+				minClass = Math.min(minClass, model.getClassName(i));
+				maxClass = Math.max(maxClass, model.getClassName(i));
+			}
+
+			// group records by class in order of first appearance
+			int[] groupOfClass = new int[maxClass - minClass + 1];
+			Arrays.fill(groupOfClass, -1);
+			int[] group = new int[numberRecords];
+			int numberGroups = 0;
+			for (int i = 0; i < numberRecords; i++) {
+				int value = model.getClassName(i) - minClass;
+				if (groupOfClass[value] < 0)
+					groupOfClass[value] = numberGroups++;
+				group[i] = groupOfClass[value];
+			}
+
+			// put the classes one after another, records in order
+			int[] groupStart = new int[numberGroups + 1];
+			for (int i = 0; i < numberRecords; i++)
+				groupStart[group[i] + 1]++;
+			for (int g = 0; g < numberGroups; g++)
+				groupStart[g + 1] += groupStart[g];
+
+			int[] position = Arrays.copyOf(groupStart, numberGroups);
+			for (int i = 0; i < numberRecords; i++)
+				order[position[group[i]]++] = i;
+
+			// shuffle each class
+			for (int g = 0; g < numberGroups; g++)
+				shuffle(order, groupStart[g], groupStart[g + 1], random);
+		} else {
+			for (int i = 0; i < numberRecords; i++)
+				order[i] = i;
+			shuffle(order, 0, numberRecords, random);
+		}
+
+		// record at position p goes to fold p mod k
+		folds = new int[k][];
+		for (int f = 0; f < k; f++)
+			folds[f] = new int[(numberRecords - f + k - 1) / k];
+		for (int p = 0; p < numberRecords; p++)
+			folds[p % k][p / k] = order[p];
+	}
+
+	/***************************************************************************************************/
+
+	// Method shuffles range [start, end) of array in place (Fisher-Yates)
+	private static void shuffle(int[] array, int start, int end, Random random) {
+		for (int i = end - start - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			int temp = array[start + i];
+			array[start + i] = array[start + j];
+			array[start + j] = temp;
+		}
+	}
+
+	/***************************************************************************************************/
+
+	// Method trains on all folds but given one and counts its errors
+	private void validateFold(Model model, int fold) {
+		int[] test = folds[fold];
+		int[] training = new int[model.getNumberRecords() - test.length];
+
+		int size = 0;
+		for (int f = 0; f < folds.length; f++)
+			if (f != fold) {
+				System.arraycopy(folds[f], 0, training, size, folds[f].length);
+				size += folds[f].length;
+			}
+
+		int[] predicted = model.classifyFold(training, test);
+
+		int numberErrors = 0;
+		for (int i = 0; i < test.length; i++)
+			if (predicted[i] != model.getClassName(test[i]))
+				numberErrors++;
+
+		foldErrors[fold] = numberErrors;
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns number of folds of last run
+	public int getNumberFolds() {
+		return folds.length;
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns number of records in fold
+	public int getFoldSize(int fold) {
+		return folds[fold].length;
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns error rate of fold in percent
+	public double getFoldErrorRate(int fold) {
+		return 100.0 * foldErrors[fold] / folds[fold].length;
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns error rate over all folds in percent, every record
+	// counting once
+	public double getErrorRate() {
+		int numberErrors = 0;
+		int numberRecords = 0;
+		for (int f = 0; f < folds.length; f++) {
+			numberErrors += foldErrors[f];
+			numberRecords += folds[f].length;
+		}
+
+		return 100.0 * numberErrors / numberRecords;
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns wall clock time of last run in milliseconds
+	public double getElapsedMillis() {
+		return elapsedTime / 1e6;
+	}
+
+	/***************************************************************************************************/
+
+	// Method displays per fold and aggregate error rates of last run
+	public void printResults() {
+		for (int f = 0; f < folds.length; f++)
+			System.out.printf("Fold %d:\t%d records\t%.2f percent error\n", f + 1, folds[f].length,
+					getFoldErrorRate(f));
+
+		System.out.printf("%d-fold %s Validation Error:\t%.2f percent error (%.1f ms)\n", folds.length, mode,
+				getErrorRate(), getElapsedMillis());
+	}
+
+}
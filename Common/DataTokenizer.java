@@ -0,0 +1,262 @@
+package First;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+// Whitespace tokenizer for the training, validation and test files, used
+// in place of java.util.Scanner. The file is read through a FileChannel into
+// one reused buffer and tokens are cut at bytes <= ' ' without regular
+// expressions. Counts and the numbers of numeric schema columns are parsed
+// straight from the bytes, and strings of short repeated labels (male,
+// single, hire, ...) are served from a small cache so reading them
+// allocates nothing.
+
+public class DataTokenizer {
+
+	/***************************************************************************************************/
+
+	private static final int BUFFER_SIZE = 1 << 16; // bytes read per refill
+	private static final int CACHE_SIZE = 256; // label cache slots, power of 2
+	private static final int CACHE_MAX_LENGTH = 32; // longest cached label
+
+	// exact powers of ten for the fast decimal path
+	private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+			1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+	/***************************************************************************************************/
+
+	private FileChannel channel; // file being read
+	private ByteBuffer buffer; // reused read buffer
+	private byte[] bytes; // array behind buffer
+	private int position; // next unread byte in buffer
+	private int limit; // number of valid bytes in buffer
+	private byte[] token; // bytes of current token
+	private int tokenLength; // length of current token
+	private String[] cache; // recently seen labels by hash
+
+	/***************************************************************************************************/
+
+	// Constructor of tokenizer, opens given file
+	public DataTokenizer(String fileName) throws IOException {
+		channel = FileChannel.open(Paths.get(fileName), StandardOpenOption.READ);
+		buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		bytes = buffer.array();
+		position = 0;
+		limit = 0;
+		token = new byte[64];
+		tokenLength = 0;
+		cache = new String[CACHE_SIZE];
+	}
+
+	/***************************************************************************************************/
+
+	// Method decides whether another token is left in the file
+	public boolean hasNext() throws IOException {
+		return skipWhitespace();
+	}
+
+	/***************************************************************************************************/
+
+	// Method reads next token as string
+	public String next() throws IOException {
+		readToken();
+
+		// labels are looked up in the cache first
+		if (tokenLength <= CACHE_MAX_LENGTH) {
+			int hash = 0;
+			for (int i = 0; i < tokenLength; i++)
+				hash = 31 * hash + token[i];
+
+			int slot = (hash ^ (hash >>> 16)) & (CACHE_SIZE - 1);
+			String cached = cache[slot];
+			if (cached != null && matches(cached))
+				return cached;
+
+			String label = new String(token, 0, tokenLength, StandardCharsets.UTF_8);
+			cache[slot] = label;
+			return label;
+		}
+
+		return new String(token, 0, tokenLength, StandardCharsets.UTF_8);
+	}
+
+	/***************************************************************************************************/
+
+	// Method reads next token as integer
+	public int nextInt() throws IOException {
+		readToken();
+
+		int i = 0;
+		boolean negative = false;
+		if (token[0] == '-' || token[0] == '+') {
+			negative = token[0] == '-';
+			i++;
+		}
+		if (i == tokenLength)
+			throw new InputMismatchException(tokenString());
+
+		long value = 0;
+		for (; i < tokenLength; i++) {
+			int digit = token[i] - '0';
+			if (digit < 0 || digit > 9)
+				throw new InputMismatchException(tokenString());
+
+			value = value * 10 + digit;
+			if (value > (long) Integer.MAX_VALUE + 1)
+				throw new InputMismatchException(tokenString());
+		}
+
+		if (negative)
+			value = -value;
+		if (value > Integer.MAX_VALUE)
+			throw new InputMismatchException(tokenString());
+
+		return (int) value;
+	}
+
+	/***************************************************************************************************/
+
+	// Method reads next token as double. Plain decimals of up to 15 digits
+	// are parsed from the bytes, anything else goes to Double.parseDouble
+	public double nextDouble() throws IOException {
+		readToken();
+
+		int i = 0;
+		boolean negative = false;
+		if (token[0] == '-' || token[0] == '+') {
+			negative = token[0] == '-';
+			i++;
+		}
+
+		long mantissa = 0;
+		int digits = 0;
+		int fractionDigits = 0;
+		boolean point = false;
+		boolean anyDigit = false;
+		boolean plain = true;
+
+		for (; i < tokenLength && plain; i++) {
+			byte b = token[i];
+			if (b >= '0' && b <= '9') {
+				mantissa = mantissa * 10 + (b - '0');
+				anyDigit = true;
+				if (mantissa != 0)
+					digits++;
+				if (point)
+					fractionDigits++;
+			} else if (b == '.' && !point)
+				point = true;
+			else
+				plain = false;
+		}
+
+		// exact mantissa and power of ten give a correctly rounded quotient
+		if (plain && anyDigit && digits <= 15 && fractionDigits < POWERS_OF_TEN.length) {
+			double value = mantissa / POWERS_OF_TEN[fractionDigits];
+			return negative ? -value : value;
+		}
+
+		try {
+			return Double.parseDouble(tokenString());
+		} catch (NumberFormatException e) {
+			throw new InputMismatchException(tokenString());
+		}
+	}
+
+	/***************************************************************************************************/
+
+	// Method closes the file
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/***************************************************************************************************/
+
+	// Method copies next token into token buffer
+	private void readToken() throws IOException {
+		if (!skipWhitespace())
+			throw new NoSuchElementException();
+
+		tokenLength = 0;
+		while (true) {
+			if (position == limit && !fill())
+				break;
+
+			byte b = bytes[position];
+			if (b <= ' ' && b >= 0)
+				break;
+
+			// grow token buffer for long tokens
+			if (tokenLength == token.length) {
+				byte[] larger = new byte[2 * token.length];
+				System.arraycopy(token, 0, larger, 0, tokenLength);
+				token = larger;
+			}
+
+			token[tokenLength++] = b;
+			position++;
+		}
+	}
+
+	/***************************************************************************************************/
+
+	// Method skips whitespace, returns false at end of file
+	private boolean skipWhitespace() throws IOException {
+		while (true) {
+			if (position == limit && !fill())
+				return false;
+
+			byte b = bytes[position];
+			if (b > ' ' || b < 0)
+				return true;
+
+			position++;
+		}
+	}
+
+	/***************************************************************************************************/
+
+	// Method reads next block of file into buffer, returns false at end of
+	// file
+	private boolean fill() throws IOException {
+		buffer.clear();
+
+		int count = channel.read(buffer);
+		while (count == 0)
+			count = channel.read(buffer);
+
+		position = 0;
+		limit = Math.max(count, 0);
+
+		return count > 0;
+	}
+
+	/***************************************************************************************************/
+
+	// Method decides whether cached label equals current token
+	private boolean matches(String label) {
+		if (label.length() != tokenLength)
+			return false;
+
+		for (int i = 0; i < tokenLength; i++)
+			if (label.charAt(i) != token[i])
+				return false;
+
+		return true;
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns current token as string for error messages and fallback
+	// parsing
+	private String tokenString() {
+		return new String(token, 0, tokenLength, StandardCharsets.UTF_8);
+	}
+
+}
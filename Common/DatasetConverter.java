@@ -0,0 +1,58 @@
+package First;
+
+import java.io.IOException;
+
+// One time conversion of a text training file to the binary dataset format
+// read by loadBinaryData. The classifier named decides how labels are
+// converted to numbers.
+// usage: DatasetConverter <classifier> <training file> <binary file>
+// classifier: NearestNeighbor, NearestNeighbor1, NearestNeighbor2,
+//             DecisionTree, DecisionTree1, DecisionTree2
+
+public class DatasetConverter {
+
+	public static void main(String[] args) throws IOException {
+
+		if (args.length != 3) {
+			System.out.println("usage: DatasetConverter <classifier> <training file> <binary file>");
+			return;
+		}
+
+		String classifier = args[0];
+		String trainingFile = args[1];
+		String binaryFile = args[2];
+
+		// parse text file with the classifier's own conversion, then save
+		if (classifier.equals("NearestNeighbor")) {
+			NearestNeighbor nearestNeighbor = new NearestNeighbor();
+			nearestNeighbor.loadTrainingData(trainingFile);
+			nearestNeighbor.saveBinaryData(binaryFile);
+		} else if (classifier.equals("NearestNeighbor1")) {
+			NearestNeighbor1 nearestNeighbor = new NearestNeighbor1();
+			nearestNeighbor.loadTrainingData(trainingFile);
+			nearestNeighbor.saveBinaryData(binaryFile);
+		} else if (classifier.equals("NearestNeighbor2")) {
+			NearestNeighbor2 nearestNeighbor = new NearestNeighbor2();
+			nearestNeighbor.loadTrainingData(trainingFile);
+			nearestNeighbor.saveBinaryData(binaryFile);
+		} else if (classifier.equals("DecisionTree")) {
+			DecisionTree tree = new DecisionTree();
+			tree.loadTrainingData(trainingFile);
+			tree.saveBinaryData(binaryFile);
+		} else if (classifier.equals("DecisionTree1")) {
+			DecisionTree1 tree = new DecisionTree1();
+			tree.loadTrainingData(trainingFile);
+			tree.saveBinaryData(binaryFile);
+		} else if (classifier.equals("DecisionTree2")) {
+			DecisionTree2 tree = new DecisionTree2();
+			tree.loadTrainingData(trainingFile);
+			tree.saveBinaryData(binaryFile);
+		} else {
+			System.out.println("Error: unknown classifier " + classifier + ".");
+			return;
+		}
+
+		System.out.println(trainingFile + " converted to " + binaryFile);
+	}
+
+}
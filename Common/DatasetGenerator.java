@@ -0,0 +1,265 @@
+package First;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.SplittableRandom;
+
+// Writes synthetic training, test and validation files of any size in the
+// text format read by a classifier's loadTrainingData, classifyData and
+// validate, with the labels of that classifier's application. Records are
+// written one at a time through a buffered writer, so memory use does not
+// depend on the number of records. The class of a record follows its first
+// two attributes, except for a share of records that get a random class, so
+// the files can be learned.
+// Stream files are test files without record count, for classifyStream.
+// usage: DatasetGenerator <classifier> <training|test|validation|stream> <records> <file> [seed]
+// classifier: NearestNeighbor, NearestNeighbor1, NearestNeighbor2,
+//             DecisionTree, DecisionTree1, DecisionTree2
+
+public class DatasetGenerator {
+
+	/***************************************************************************************************/
+
+	// Attribute column, either categorical labels or numbers in a range
+	private static class Column {
+		private String[] labels; // labels of categorical column, null if numeric
+		private int min; // smallest number, in units of the last digit
+		private int max; // largest number, in units of the last digit
+		private int decimals; // digits after the decimal point
+
+		// Constructor of categorical column
+		private Column(String... labels) {
+			this.labels = labels;
+		}
+
+		// Constructor of numeric column, bounds are given with decimals
+		private Column(double min, double max, int decimals) {
+			int scale = (int) Math.pow(10, decimals);
+			this.min = (int) Math.round(min * scale);
+			this.max = (int) Math.round(max * scale);
+			this.decimals = decimals;
+		}
+	}
+
+	/***************************************************************************************************/
+
+	private static final int BUFFER_SIZE = 1 << 20; // bytes buffered by writer
+	private static final double NOISE = 0.1; // share of records with random class
+
+	/***************************************************************************************************/
+
+	private Column[] columns; // attribute columns
+	private String[] classLabels; // class labels records are given
+	private int numberClasses; // number of classes in header
+	private String parameters; // header line after counts, null if none
+	private SplittableRandom random; // source of records
+	private StringBuilder line; // reused line buffer
+	private double[] values; // attributes of current record scaled to [0, 1]
+
+	/***************************************************************************************************/
+
+	// Constructor of generator of the files of given classifier
+	public DatasetGenerator(String classifier, long seed) {
+		if (classifier.equals("NearestNeighbor")) {
+			columns = new Column[] { new Column("male", "female"), new Column(0, 100, 0),
+					new Column("A", "B", "C") };
+			classLabels = new String[] { "high", "medium", "low" };
+			numberClasses = 3;
+			parameters = "5 weighted";
+		} else if (classifier.equals("NearestNeighbor1")) {
+			columns = new Column[] { new Column(0, 100, 0), new Column(2.0, 4.0, 2), new Column("A", "B", "C") };
+			classLabels = new String[] { "good", "average", "bad" };
+			numberClasses = 3;
+			parameters = "5 weighted";
+		} else if (classifier.equals("NearestNeighbor2")) {
+			columns = new Column[] { new Column(500, 900, 0), new Column(30, 90, 0), new Column(30, 80, 0),
+					new Column("male", "female"), new Column("single", "married", "divorced") };
+			classLabels = new String[] { "low", "medium", "high" };
+			numberClasses = 4;
+			parameters = "3 unweighted";
+		} else if (classifier.equals("DecisionTree")) {
+			columns = new Column[] { new Column("highschool", "college"), new Column("smoker", "nonsmoker"),
+					new Column("married", "single"), new Column("male", "female"), new Column("works", "retired") };
+			classLabels = new String[] { "highrisk", "mediumrisk", "lowrisk" };
+			numberClasses = 4;
+			parameters = null;
+		} else if (classifier.equals("DecisionTree1")) {
+			columns = new Column[] { new Column("0", "1"), new Column("0", "1"), new Column("0", "1"),
+					new Column("0", "1"), new Column("0", "1") };
+			classLabels = new String[] { "1", "2", "3", "4" };
+			numberClasses = 4;
+			parameters = null;
+		} else if (classifier.equals("DecisionTree2")) {
+			columns = new Column[] { new Column("cs", "other"), new Column("java", "no"), new Column("c/c++", "no"),
+					new Column("gpa>3", "gpa<3"), new Column("large", "small"), new Column("years>5", "years<5") };
+			classLabels = new String[] { "hire", "no" };
+			numberClasses = 2;
+			parameters = null;
+		} else
+			throw new IllegalArgumentException("Error: unknown classifier " + classifier + ".");
+
+		random = new SplittableRandom(seed);
+		line = new StringBuilder();
+		values = new double[columns.length];
+	}
+
+	/***************************************************************************************************/
+
+	// Method writes a training file: counts, parameters, records with class
+	public void writeTrainingFile(String fileName, long numberRecords) throws IOException {
+		BufferedWriter outFile = open(fileName, numberRecords, Integer.MAX_VALUE);
+
+		outFile.write(numberRecords + " " + columns.length + " " + numberClasses + "\n\n");
+		if (parameters != null)
+			outFile.write(parameters + "\n\n");
+
+		writeRecords(outFile, numberRecords, true);
+	}
+
+	/***************************************************************************************************/
+
+	// Method writes a test file: count, records without class
+	public void writeTestFile(String fileName, long numberRecords) throws IOException {
+		BufferedWriter outFile = open(fileName, numberRecords, Integer.MAX_VALUE);
+
+		outFile.write(numberRecords + "\n\n");
+		writeRecords(outFile, numberRecords, false);
+	}
+
+	/***************************************************************************************************/
+
+	// Method writes a stream file: records without class, no count
+	public void writeStreamFile(String fileName, long numberRecords) throws IOException {
+		BufferedWriter outFile = open(fileName, numberRecords, Long.MAX_VALUE);
+
+		writeRecords(outFile, numberRecords, false);
+	}
+
+	/***************************************************************************************************/
+
+	// Method writes a validation file: count, records with class
+	public void writeValidationFile(String fileName, long numberRecords) throws IOException {
+		BufferedWriter outFile = open(fileName, numberRecords, Integer.MAX_VALUE);
+
+		outFile.write(numberRecords + "\n\n");
+		writeRecords(outFile, numberRecords, true);
+	}
+
+	/***************************************************************************************************/
+
+	// Method opens file, record counts are read back as int by the loaders
+	// while stream files have no count
+	private BufferedWriter open(String fileName, long numberRecords, long maxRecords) throws IOException {
+		if (numberRecords < 0 || numberRecords > maxRecords)
+			throw new IllegalArgumentException("Error: number of records must be 0 to " + maxRecords + ".");
+
+		return new BufferedWriter(new FileWriter(fileName), BUFFER_SIZE);
+	}
+
+	/***************************************************************************************************/
+
+	// Method writes records one line at a time and closes file
+	private void writeRecords(BufferedWriter outFile, long numberRecords, boolean withClass) throws IOException {
+		for (long i = 0; i < numberRecords; i++) {
+			line.setLength(0);
+
+			for (int j = 0; j < columns.length; j++) {
+				appendAttribute(j);
+				line.append(' ');
+			}
+
+			if (withClass)
+				line.append(classLabels[className()]);
+			else
+				line.setLength(line.length() - 1);
+
+			line.append('\n');
+			outFile.append(line);
+		}
+
+		outFile.close();
+	}
+
+	/***************************************************************************************************/
+
+	// Method draws attribute j of a record, appends its label to the line and
+	// keeps its value scaled to [0, 1]
+	private void appendAttribute(int j) {
+		Column column = columns[j];
+
+		if (column.labels != null) {
+			int index = random.nextInt(column.labels.length);
+			line.append(column.labels[index]);
+			values[j] = column.labels.length == 1 ? 0 : (double) index / (column.labels.length - 1);
+			return;
+		}
+
+		int units = random.nextInt(column.min, column.max + 1);
+		values[j] = (double) (units - column.min) / (column.max - column.min);
+
+		// fixed point number without formatting
+		if (units < 0) {
+			line.append('-');
+			units = -units;
+		}
+		if (column.decimals == 0)
+			line.append(units);
+		else {
+			int scale = (int) Math.pow(10, column.decimals);
+			line.append(units / scale).append('.');
+			String fraction = Integer.toString(units % scale);
+			for (int d = fraction.length(); d < column.decimals; d++)
+				line.append('0');
+			line.append(fraction);
+		}
+	}
+
+	/***************************************************************************************************/
+
+	// Method finds class of current record from its first two attributes, or
+	// a random class for a share of records
+	private int className() {
+		if (random.nextDouble() < NOISE)
+			return random.nextInt(classLabels.length);
+
+		double score = columns.length > 1 ? (values[0] + values[1]) / 2 : values[0];
+		return Math.min(classLabels.length - 1, (int) (score * classLabels.length));
+	}
+
+	/***************************************************************************************************/
+
+	public static void main(String[] args) throws IOException {
+
+		if (args.length < 4 || args.length > 5) {
+			System.out.println(
+					"usage: DatasetGenerator <classifier> <training|test|validation|stream> <records> <file> [seed]");
+			return;
+		}
+
+		String kind = args[1];
+		long numberRecords = Long.parseLong(args[2]);
+		String fileName = args[3];
+		long seed = args.length == 5 ? Long.parseLong(args[4]) : 1;
+
+		DatasetGenerator generator = new DatasetGenerator(args[0], seed);
+
+		long start = System.nanoTime();
+		if (kind.equals("training"))
+			generator.writeTrainingFile(fileName, numberRecords);
+		else if (kind.equals("test"))
+			generator.writeTestFile(fileName, numberRecords);
+		else if (kind.equals("validation"))
+			generator.writeValidationFile(fileName, numberRecords);
+		else if (kind.equals("stream"))
+			generator.writeStreamFile(fileName, numberRecords);
+		else {
+			System.out.println("Error: unknown file kind " + kind + ".");
+			return;
+		}
+
+		System.out.printf("%s: %d records written in %.1f s\n", fileName, numberRecords,
+				(System.nanoTime() - start) / 1e9);
+	}
+
+}
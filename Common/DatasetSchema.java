@@ -0,0 +1,369 @@
+package First;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+// Encoders that turn the labels of a data file into numbers, one per
+// attribute column plus one for the class. A column is either categorical
+// (hash lookup of label to value, with a value for unknown labels), numeric
+// (min-max scaled to [0, 1]) or threshold (numbers below the threshold are
+// 0, others 1). A schema is declared once per application or learned from a
+// training file, and then shared by loadTrainingData, classifyData and
+// validate so every token costs one lookup. The decision trees only take
+// binary schemas, whose every column gives 0 or 1 (see learnBinary).
+
+public class DatasetSchema {
+
+	/***************************************************************************************************/
+
+	// Kind of column encoder
+	private enum Kind {
+		CATEGORICAL, NUMERIC, THRESHOLD
+	}
+
+	/***************************************************************************************************/
+
+	// Column encoder class
+	private class Column {
+		private Kind kind; // categorical, numeric or threshold
+		private HashMap<String, Integer> codes; // label to index of value
+		private double[] values; // value of each known label
+		private double defaultValue; // value of unknown label
+		private double min; // numeric value mapped to 0
+		private double max; // numeric value mapped to 1
+		private double threshold; // smallest number mapped to 1
+
+		// Constructor of categorical column
+		private Column(String[] labels, double[] values, double defaultValue) {
+			this.kind = Kind.CATEGORICAL;
+			this.codes = new HashMap<>();
+			for (int i = 0; i < labels.length; i++)
+				codes.put(labels[i], i);
+			this.values = values.clone();
+			this.defaultValue = defaultValue;
+		}
+
+		// Constructor of numeric column
+		private Column(double min, double max) {
+			this.kind = Kind.NUMERIC;
+			this.min = min;
+			this.max = max;
+		}
+
+		// Constructor of threshold column
+		private Column(double threshold) {
+			this.kind = Kind.THRESHOLD;
+			this.threshold = threshold;
+		}
+	}
+
+	/***************************************************************************************************/
+
+	private Column[] columns; // encoder of each attribute column
+	private HashMap<String, Integer> classCodes; // class label to class value
+	private String[] classLabels; // class label of each class value - 1
+
+	/***************************************************************************************************/
+
+	// Constructor of schema for given number of attributes, columns and
+	// classes are declared afterwards
+	public DatasetSchema(int numberAttributes) {
+		columns = new Column[numberAttributes];
+		classCodes = new HashMap<>();
+		classLabels = new String[0];
+	}
+
+	/***************************************************************************************************/
+
+	// Method declares a numeric column (1 based) scaled from [min, max] to
+	// [0, 1]
+	public void setNumeric(int column, double min, double max) {
+		columns[column - 1] = new Column(min, max);
+	}
+
+	/***************************************************************************************************/
+
+	// Method declares a threshold column (1 based), numbers below threshold
+	// are converted to 0 and others to 1
+	public void setThreshold(int column, double threshold) {
+		columns[column - 1] = new Column(threshold);
+	}
+
+	/***************************************************************************************************/
+
+	// Method declares a categorical column (1 based), labels[i] is converted
+	// to values[i] and any other label to defaultValue
+	public void setCategorical(int column, String[] labels, double[] values, double defaultValue) {
+		columns[column - 1] = new Column(labels, values, defaultValue);
+	}
+
+	/***************************************************************************************************/
+
+	// Method declares class labels, labels[i] is class i + 1. An unknown label
+	// is converted to the last class and an unknown class to the last label
+	public void setClasses(String[] labels) {
+		classLabels = labels.clone();
+		classCodes = new HashMap<>();
+		for (int i = 0; i < labels.length; i++)
+			classCodes.put(labels[i], i + 1);
+	}
+
+	/***************************************************************************************************/
+
+	// Method decides whether column (1 based) is categorical
+	public boolean isCategorical(int column) {
+		Column encoder = columns[column - 1];
+
+		return encoder != null && encoder.kind == Kind.CATEGORICAL;
+	}
+
+	/***************************************************************************************************/
+
+	// Method decides whether column (1 based) holds numbers, numeric or
+	// threshold, so that readers can parse them without making a label
+	public boolean isNumber(int column) {
+		Column encoder = columns[column - 1];
+
+		return encoder != null && encoder.kind != Kind.CATEGORICAL;
+	}
+
+	/***************************************************************************************************/
+
+	// Method decides whether every column is declared and converts any label
+	// to 0 or 1, as the decision trees need
+	public boolean isBinary() {
+		for (Column encoder : columns) {
+			if (encoder == null || encoder.kind == Kind.NUMERIC)
+				return false;
+
+			if (encoder.kind == Kind.CATEGORICAL) {
+				if (!isBinary(encoder.defaultValue))
+					return false;
+				for (double value : encoder.values)
+					if (!isBinary(value))
+						return false;
+			}
+		}
+
+		return true;
+	}
+
+	/***************************************************************************************************/
+
+	// Method decides whether value is 0 or 1
+	private static boolean isBinary(double value) {
+		return value == 0 || value == 1;
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns which of the first numberAttributes columns are
+	// categorical, 0 based
+	public boolean[] categoricalColumns(int numberAttributes) {
+		boolean[] categorical = new boolean[numberAttributes];
+		for (int j = 0; j < numberAttributes && j < columns.length; j++)
+			categorical[j] = isCategorical(j + 1);
+
+		return categorical;
+	}
+
+	/***************************************************************************************************/
+
+	// Method converts attribute label of column (1 based) to numerical value
+	public double encode(String label, int column) {
+		Column encoder = columns[column - 1];
+
+		if (encoder.kind != Kind.CATEGORICAL)
+			return encode(Double.parseDouble(label), column);
+
+		Integer code = encoder.codes.get(label);
+		if (code == null)
+			return encoder.defaultValue;
+
+		return encoder.values[code];
+	}
+
+	/***************************************************************************************************/
+
+	// Method converts number of a numeric or threshold column (1 based) to
+	// numerical value
+	public double encode(double number, int column) {
+		Column encoder = columns[column - 1];
+
+		if (encoder.kind == Kind.THRESHOLD)
+			return number < encoder.threshold ? 0 : 1;
+
+		return (number - encoder.min) / (encoder.max - encoder.min);
+	}
+
+	/***************************************************************************************************/
+
+	// Method converts class label to class value
+	public int encodeClass(String label) {
+		Integer code = classCodes.get(label);
+		if (code == null)
+			return classLabels.length;
+
+		return code;
+	}
+
+	/***************************************************************************************************/
+
+	// Method converts class value to class label
+	public String decodeClass(int value) {
+		if (value >= 1 && value <= classLabels.length)
+			return classLabels[value - 1];
+
+		return classLabels[classLabels.length - 1];
+	}
+
+	/***************************************************************************************************/
+
+	// Method learns a schema from a training file. A column whose labels are
+	// all numbers is numeric with the range found in the file, any other
+	// column is categorical with values 0, 1, 2, ... in order of first
+	// appearance (unknown labels get the next value). Classes are numbered in
+	// order of first appearance. parameterTokens is the number of header
+	// tokens after the record, attribute and class counts (2 for the nearest
+	// neighbor files, 0 for the decision tree files)
+	public static DatasetSchema learn(String trainingFile, int parameterTokens) throws IOException {
+		return learn(trainingFile, parameterTokens, false);
+	}
+
+	/***************************************************************************************************/
+
+	// Method learns a binary schema from a decision tree training file. A
+	// column whose labels are all numbers is a threshold column split at the
+	// median found in the file (0/1 columns stay 0/1), any other column of
+	// one or two labels gives 0 to its first label and 1 to any other. A
+	// column of more labels cannot be split in two without choosing which go
+	// together and is rejected
+	public static DatasetSchema learnBinary(String trainingFile) throws IOException {
+		return learn(trainingFile, 0, true);
+	}
+
+	/***************************************************************************************************/
+
+	// Method learns a schema as above, binary or not
+	private static DatasetSchema learn(String trainingFile, int parameterTokens, boolean binary)
+			throws IOException {
+		DataTokenizer inFile = new DataTokenizer(trainingFile);
+
+		// read number of records, attributes, classes and skip parameters
+		int numberRecords = inFile.nextInt();
+		int numberAttributes = inFile.nextInt();
+		inFile.nextInt();
+		for (int i = 0; i < parameterTokens; i++)
+			inFile.next();
+
+		// labels seen in every column in order of first appearance, and the
+		// numbers of numeric columns if a median is needed
+		ArrayList<ArrayList<String>> labels = new ArrayList<>();
+		ArrayList<HashMap<String, Integer>> seen = new ArrayList<>();
+		boolean[] numeric = new boolean[numberAttributes];
+		double[] min = new double[numberAttributes];
+		double[] max = new double[numberAttributes];
+		double[][] numbers = new double[numberAttributes][];
+		for (int j = 0; j < numberAttributes; j++) {
+			labels.add(new ArrayList<String>());
+			seen.add(new HashMap<String, Integer>());
+			numeric[j] = true;
+			min[j] = Double.POSITIVE_INFINITY;
+			max[j] = Double.NEGATIVE_INFINITY;
+			if (binary)
+				numbers[j] = new double[numberRecords];
+		}
+		ArrayList<String> classes = new ArrayList<>();
+		HashMap<String, Integer> seenClasses = new HashMap<>();
+
+		// for each record
+		for (int i = 0; i < numberRecords; i++) {
+			for (int j = 0; j < numberAttributes; j++) {
+				String label = inFile.next();
+
+				if (!seen.get(j).containsKey(label)) {
+					seen.get(j).put(label, labels.get(j).size());
+					labels.get(j).add(label);
+				}
+
+				// column stays numeric while every label is a number
+				if (numeric[j]) {
+					try {
+						double value = Double.parseDouble(label);
+						min[j] = Math.min(min[j], value);
+						max[j] = Math.max(max[j], value);
+						if (binary)
+							numbers[j][i] = value;
+					} catch (NumberFormatException e) {
+						numeric[j] = false;
+						numbers[j] = null;
+					}
+				}
+			}
+
+			String label = inFile.next();
+			if (!seenClasses.containsKey(label)) {
+				seenClasses.put(label, classes.size());
+				classes.add(label);
+			}
+		}
+
+		inFile.close();
+
+		// compile encoders
+		DatasetSchema schema = new DatasetSchema(numberAttributes);
+		for (int j = 0; j < numberAttributes; j++) {
+			String[] columnLabels = labels.get(j).toArray(new String[0]);
+
+			if (binary && numeric[j])
+				schema.setThreshold(j + 1, threshold(numbers[j], max[j]));
+			else if (binary) {
+				if (columnLabels.length > 2)
+					throw new IOException("Error: column " + (j + 1) + " of " + trainingFile + " has "
+							+ columnLabels.length + " labels, a decision tree needs binary attributes.");
+
+				// first label 0, any other 1
+				schema.setCategorical(j + 1, Arrays.copyOf(columnLabels, Math.min(1, columnLabels.length)),
+						new double[Math.min(1, columnLabels.length)], 1);
+			} else if (numeric[j] && max[j] > min[j])
+				schema.setNumeric(j + 1, min[j], max[j]);
+			else if (numeric[j])
+				schema.setNumeric(j + 1, min[j], min[j] + 1);
+			else {
+				double[] values = new double[columnLabels.length];
+				for (int k = 0; k < values.length; k++)
+					values[k] = k;
+				schema.setCategorical(j + 1, columnLabels, values, values.length);
+			}
+		}
+		schema.setClasses(classes.toArray(new String[0]));
+
+		return schema;
+	}
+
+	/***************************************************************************************************/
+
+	// Method finds threshold splitting numbers of a column at the median, the
+	// smallest number always falls below it unless all numbers are equal.
+	// Sorts the numbers
+	private static double threshold(double[] numbers, double max) {
+		double[] sorted = numbers;
+		Arrays.sort(sorted);
+		if (sorted.length == 0)
+			return 0;
+
+		double median = sorted[sorted.length / 2];
+		if (median > sorted[0])
+			return median;
+
+		// more than half the numbers are the smallest, split above them
+		for (double value : sorted)
+			if (value > median)
+				return value;
+
+		return max;
+	}
+
+}
@@ -0,0 +1,180 @@
+package First;
+
+// Training records of a decision tree kept as bitsets across records: for
+// every attribute one bit per record telling whether the attribute is 1, and
+// for every class one bit per record telling whether the record has that
+// class. A binary attribute costs one bit instead of an int, and the class
+// counts of a split are popcounts of ANDed words. Values other than 0/1 (only
+// made by schemas with more than two values per column) are kept aside for
+// the attributes that have them.
+
+public class BitRecordStore {
+
+	/***************************************************************************************************/
+
+	private long[][] ones; // per attribute, bit of record set if value is 1
+	private long[][] others; // per attribute, bit set if value is not 0/1, null if none
+	private int[][] otherValues; // per attribute, non binary values, null if none
+	private long[][] classBits; // per class, bit of record set if record has class
+	private int[] classNames; // class of each record
+	private int numberAttributes; // number of attributes per record
+	private int numberClasses; // number of classes
+	private int size; // number of records added
+
+	/***************************************************************************************************/
+
+	// Constructor of store with room for given number of records
+	public BitRecordStore(int numberRecords, int numberAttributes, int numberClasses) {
+		int words = (numberRecords + 63) >>> 6;
+
+		this.ones = new long[numberAttributes][words];
+		this.others = new long[numberAttributes][];
+		this.otherValues = new int[numberAttributes][];
+		this.classBits = new long[numberClasses][words];
+		this.classNames = new int[numberRecords];
+		this.numberAttributes = numberAttributes;
+		this.numberClasses = numberClasses;
+		this.size = 0;
+	}
+
+	/***************************************************************************************************/
+
+	// Method appends a record, classes are 1 based
+	public void add(int[] attributeArray, int className) {
+		for (int j = 0; j < numberAttributes; j++)
+			set(size, j, attributeArray[j]);
+
+		setClass(size, className);
+		size++;
+	}
+
+	/***************************************************************************************************/
+
+	// Method fills empty store with all records of a binary dataset, a whole
+	// attribute column at a time
+	public void load(BinaryDataset dataset) {
+		int numberRecords = dataset.getNumberRecords();
+		int[] column = new int[numberRecords];
+
+		for (int j = 0; j < numberAttributes; j++) {
+			dataset.getColumn(j, column);
+			for (int i = 0; i < numberRecords; i++)
+				set(i, j, column[i]);
+		}
+
+		dataset.getClassNames(column);
+		for (int i = 0; i < numberRecords; i++)
+			setClass(i, column[i]);
+
+		size = numberRecords;
+	}
+
+	/***************************************************************************************************/
+
+	// Method sets attribute (0 based) of record, which is 0 until set
+	private void set(int record, int attribute, int value) {
+		int word = record >>> 6;
+		long bit = 1L << record;
+
+		if (value == 1)
+			ones[attribute][word] |= bit;
+		else if (value != 0) {
+			// first non binary value of this attribute
+			if (others[attribute] == null) {
+				others[attribute] = new long[ones[attribute].length];
+				otherValues[attribute] = new int[classNames.length];
+			}
+			others[attribute][word] |= bit;
+			otherValues[attribute][record] = value;
+		}
+	}
+
+	// Method sets class of record, classes are 1 based
+	private void setClass(int record, int className) {
+		if (className >= 1 && className <= numberClasses)
+			classBits[className - 1][record >>> 6] |= 1L << record;
+		classNames[record] = className;
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns number of records
+	public int size() {
+		return size;
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns number of attributes per record
+	public int getNumberAttributes() {
+		return numberAttributes;
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns number of 64 bit words of a bitset over all records
+	public int getNumberWords() {
+		return (classNames.length + 63) >>> 6;
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns attribute of record (attribute is 0 based)
+	public int get(int record, int attribute) {
+		int word = record >>> 6;
+		long bit = 1L << record;
+
+		if ((ones[attribute][word] & bit) != 0)
+			return 1;
+		if (others[attribute] != null && (others[attribute][word] & bit) != 0)
+			return otherValues[attribute][record];
+
+		return 0;
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns a copy of the attributes of record
+	public int[] getRow(int record) {
+		int[] row = new int[numberAttributes];
+		for (int j = 0; j < numberAttributes; j++)
+			row[j] = get(record, j);
+
+		return row;
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns class of record
+	public int getClassName(int record) {
+		return classNames[record];
+	}
+
+	/***************************************************************************************************/
+
+	// Method counts classes of the records in members for value 0 and 1 of
+	// given attribute (0 based). Count of class c among records with value v
+	// is added to counts[offset + v*numberClasses + c]
+	public void countClasses(long[] members, int attribute, int[] counts, int offset) {
+		long[] one = ones[attribute];
+		long[] other = others[attribute];
+
+		for (int w = 0; w < members.length; w++) {
+			long member = members[w];
+			if (member == 0)
+				continue;
+
+			long memberOne = member & one[w];
+			long memberZero = member & ~one[w];
+			if (other != null)
+				memberZero &= ~other[w];
+
+			for (int c = 0; c < numberClasses; c++) {
+				long inClass = classBits[c][w];
+				counts[offset + c] += Long.bitCount(memberZero & inClass);
+				counts[offset + numberClasses + c] += Long.bitCount(memberOne & inClass);
+			}
+		}
+	}
+
+}
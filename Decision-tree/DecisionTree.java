@@ -1,32 +1,15 @@
 package First;
 
-import java.io.File;
+import java.io.BufferedWriter;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
-import java.util.ArrayList;
-import java.util.Scanner;
+import java.util.BitSet;
 
 public class DecisionTree {
 	
 	/***************************************************************************************************/
 
-	//Training record class
-	private class Record{
-
-		private int[] attributes;			//attributes of record
-		private int className;				//class of record
-
-		//constructor of record
-		private Record(int[] attributes, int className)
-		{
-			this.attributes = attributes;
-			this.className = className;
-		}
-	}
-
-	/***************************************************************************************************/
-
 	//Decision tree node class
 	private class Node{
 
@@ -58,12 +41,32 @@ public class DecisionTree {
 
 	/***************************************************************************************************/
 
+	//popcount counting is used for ranges holding at least
+	//numberClasses/POPCOUNT_RATIO of all records
+	private static final int POPCOUNT_RATIO = 32;
+
+	//number of test records read, classified and written at a time when
+	//streaming
+	private static final int STREAM_BATCH = 4096;
+
+	//bytes buffered by the classified file writer when streaming
+	private static final int STREAM_BUFFER = 1 << 20;
+
 	private Node root;						//root of decision tree
-	private ArrayList<Record> records;		//list of training records
-	private ArrayList<Integer> attributes;	//list of attributes
+	private BitRecordStore records;			//training records as bitsets
+	private int[] order;					//record indices, partitioned by build
+	private long[] members;					//bitset of records counted by popcount
 	private int numberRecords;				//number of training records
 	private int numberAttributes;			//number of attributes
 	private int numberClasses;				//number of classes
+	private DatasetSchema schema;		//converts labels to numbers
+	private boolean linked;					//classify walks Node objects, not arrays
+
+	//tree compiled to parallel arrays, node 0 is root
+	private int[] treeCondition;			//attribute index, -1 if leaf
+	private int[] treeLeft;					//left child of internal node
+	private int[] treeRight;				//right child of internal node
+	private int[] treeClass;				//class of leaf node
 
 	/***************************************************************************************************/
 
@@ -71,11 +74,36 @@ public class DecisionTree {
 	public DecisionTree()
 	{
 		root = null;						//initialize root, records, 
-		records = null;						//attributes to empty
-		attributes = null;					
+		records = null;						//order to empty
+		order = null;
+		members = null;
 		numberRecords = 0;
 		numberAttributes = 0;
 		numberClasses = 0;	
+		schema = defaultSchema();		//application schema
+		linked = false;						//classify on compiled arrays
+	}
+
+	/***************************************************************************************************/
+
+	//Method to reset schema, e.g. one learned from a training file by
+	//DatasetSchema.learnBinary. Every column must convert to 0 or 1
+	public void setSchema(DatasetSchema schema)
+	{
+		if (!schema.isBinary())
+			throw new IllegalArgumentException("Error: decision tree needs a binary schema.");
+
+		this.schema = schema;
+	}
+
+	/***************************************************************************************************/
+
+	//Method to reset traversal used by classify: flat (compiled arrays) or
+	//linked (Node objects, kept for benchmarking)
+	public void setTraversal(String traversal)
+	{
+		//anything but linked is flat, in case of mis-input
+		linked = traversal.equals("linked");
 	}
 
 	/***************************************************************************************************/
@@ -83,32 +111,94 @@ public class DecisionTree {
 	//Method builds decision tree for the whole training data
 	public void buildTree()
 	{
-		root = build(records, attributes);	//initial call to build method
+		//every record, no attribute used yet
+		order = new int[records.size()];
+		for(int i = 0; i < order.length; i++)
+			order[i] = i;
+		members = new long[records.getNumberWords()];
+
+		root = build(0, order.length, new BitSet(numberAttributes));
+		compileTree();						//flatten for classify
+	}
+
+	/***************************************************************************************************/
+
+	//Method compiles linked tree into parallel arrays so that classify is a
+	//loop over primitive arrays without string compares
+	private void compileTree()
+	{
+		int size = countNodes(root);
+
+		treeCondition = new int[size];
+		treeLeft = new int[size];
+		treeRight = new int[size];
+		treeClass = new int[size];
+
+		compile(root, 0);
+	}
+
+	/***************************************************************************************************/
+
+	//Method counts nodes of subtree
+	private int countNodes(Node node)
+	{
+		if(node.nodeType.equals("leaf"))
+			return 1;
+
+		return 1 + countNodes(node.left) + countNodes(node.right);
+	}
+
+	/***************************************************************************************************/
+
+	//Method stores subtree in preorder starting at given index, returns next
+	//free index
+	private int compile(Node node, int index)
+	{
+		if(node.nodeType.equals("leaf"))
+		{
+			treeCondition[index] = -1;
+			treeLeft[index] = -1;
+			treeRight[index] = -1;
+			treeClass[index] = node.className;
+			return index + 1;
+		}
+
+		//conditions are 1 based, array index is 0 based
+		treeCondition[index] = node.condition - 1;
+		treeClass[index] = -1;
+
+		treeLeft[index] = index + 1;
+		int next = compile(node.left, index + 1);
+
+		treeRight[index] = next;
+		return compile(node.right, next);
 	}
 
 	/***************************************************************************************************/
 
-	//Method builds decision tree from given records and attributes, returns
-	//root of tree that is build
-	private Node build(ArrayList<Record> records, ArrayList<Integer> attributes){
+	//Method builds decision tree from the records whose indices are in
+	//order[start..end), attributes in used are already taken by ancestors,
+	//returns root of tree that is build. Children get subranges of the same
+	//array, so no record lists or attribute lists are copied
+	private Node build(int start, int end, BitSet used){
 
 		//root node is empty initially
 		Node node = null;
 
 		//if all records have same class
-		if (sameClass(records))
+		if (sameClass(start, end))
 		{
 			//find class name
-			int className = records.get(0).className;
+			int className = records.getClassName(order[start]);
 
 			//node is leaf with that class
 			node = new Node("leaf", className, null, null);
 		}
 		//if there are no attributes
-		else if(attributes.isEmpty())
+		else if(used.cardinality() == numberAttributes)
 		{
 			//find majority class of records
-			int className = majorityClass(records);
+			int className = majorityClass(start, end);
 
 			//node is leaf with that class
 			node = new Node("leaf", className, null,null);
@@ -116,41 +206,38 @@ public class DecisionTree {
 		else
 		{
 			//find best condition for current records and attributes
-			int condition = bestCondition(records, attributes);
+			int condition = bestCondition(start, end, used);
 
-			//collect all records which have 0 for condition
-			ArrayList<Record> leftRecords = collect(records, condition, 0);
-
-			//collect all records which have 1 for condition
-			ArrayList<Record> rightRecords = collect(records, condition, 1);
+			//move records which have 0 for condition to the front of the
+			//range and records which have 1 right after them
+			int[] bounds = partition(start, end, condition);
+			int middle = bounds[0];
+			int ones = bounds[1];
 
 			//if eighter left records or right is empty
-			if(leftRecords.isEmpty() || rightRecords.isEmpty())
+			if(middle == start || ones == middle)
 			{
 				//find majority class of records
-				int className = majorityClass(records);
+				int className = majorityClass(start, end);
 				//node is leaf with that class
 				node = new Node("leaf", className, null, null);
 			}
 			else
 			{
-				//create copies of current attributes
-				ArrayList<Integer> leftAttributes = new ArrayList<>(attributes);
-				ArrayList<Integer> rightAttributes = new ArrayList<>(attributes);
-
-				//remove best condition from current attributes
-				leftAttributes.remove(new Integer(condition));
-				rightAttributes.remove(new Integer(condition));
-
 				//create internal node with the best condition
 				node = new Node("internal", condition, null, null);
 
+				//best condition is taken in both subtrees
+				used.set(condition - 1);
+
 				//create left subtree recursively
-				node.left = build(leftRecords, leftAttributes);
+				node.left = build(start, middle, used);
 
 				//create right subtree recursively
-				node.right = build(rightRecords, rightAttributes);
+				node.right = build(middle, ones, used);
 
+				//give condition back for siblings of this node
+				used.clear(condition - 1);
 			}
 		}
 
@@ -161,12 +248,13 @@ public class DecisionTree {
 
 	/***************************************************************************************************/
 
-	//Method decides whether all records have the same class
-	private boolean sameClass(ArrayList<Record> records)
+	//Method decides whether all records in range have the same class
+	private boolean sameClass(int start, int end)
 	{
 		//compare class of each record with class of first record
-		for(int i = 0; i < records.size(); i++)
-			if(records.get(i).className != records.get(0).className)
+		int className = records.getClassName(order[start]);
+		for(int i = start; i < end; i++)
+			if(records.getClassName(order[i]) != className)
 				return false;
 
 		return true;
@@ -174,16 +262,13 @@ public class DecisionTree {
 
 	/***************************************************************************************************/
 
-	//Method finds the majority class of records
-	private int majorityClass(ArrayList<Record> records)
+	//Method finds the majority class of records in range
+	private int majorityClass(int start, int end)
 	{
 		int[] frequency = new int[numberClasses];		//frequency array
 
-		for(int i = 0; i < numberClasses; i++)			//ini frequency array
-			frequency[i] = 0;
-
-		for(int i = 0; i < records.size(); i++)			//find frequency of classes
-			frequency[records.get(i).className - 1] += 1;
+		for(int i = start; i < end; i++)				//find frequency of classes
+			frequency[records.getClassName(order[i]) - 1] += 1;
 
 		int maxIndex = 0;								//find class with max frequency
 		for(int i = 0; i < numberClasses; i++)
@@ -195,66 +280,147 @@ public class DecisionTree {
 
 	/***************************************************************************************************/
 
-	//Method collects records that have a given value for a given attribute
-	private ArrayList<Record> collect(ArrayList<Record> records, int condition, int value)
+	//Method partitions range of order in place by value of given attribute:
+	//records with 0 first, then records with 1, then records with any other
+	//value (which go to neither subtree). Returns end of the 0 part and end
+	//of the 1 part
+	private int[] partition(int start, int end, int condition)
 	{
-		//initialize collection
-		ArrayList<Record> result = new ArrayList<>();
+		int zero = start;				//next slot of 0 part
+		int current = start;			//next record to look at
+		int other = end;				//start of other part
+
+		while(current < other)
+		{
+			int value = records.get(order[current], condition - 1);
+
+			if(value == 0)
+				swap(zero++, current++);
+			else if(value == 1)
+				current++;
+			else
+				swap(current, --other);
+		}
+
+		return new int[] {zero, other};
+	}
 
-		//go thru records and collect those that that have given value
-		//for given attribute
-		for(int i = 0; i < records.size(); i++)
-			if(records.get(i).attributes[condition - 1] == value)
-				result.add(records.get(i));
+	/***************************************************************************************************/
 
-		//return collection
-		return result;
+	//Method swaps two entries of order
+	private void swap(int i, int j)
+	{
+		int temp = order[i];
+		order[i] = order[j];
+		order[j] = temp;
 	}
 
 	/***************************************************************************************************/
 
-	//Method finds best condition for given records and attributes
-	private int bestCondition(ArrayList<Record> records, ArrayList<Integer> attributes)
+	//Method finds best condition for records in range among attributes not
+	//in used
+	private int bestCondition(int start, int end, BitSet used)
 	{
-		//evaluate first attribute
-		double minValue = evaluate(records, attributes.get(0));
-		int minIndex = 0;
+		//class counts of every attribute value, filled in one pass
+		int[] counts = countClasses(start, end, used);
 
-		//go thru all attributes
-		for(int i = 0; i < attributes.size(); i++)
+		//attributes are tried in increasing order, first minimum wins
+		double minValue = 0;
+		int minIndex = -1;
+
+		for(int i = 0; i < numberAttributes; i++)
 		{
-			double value = evaluate(records, attributes.get(i));
+			if(used.get(i))
+				continue;
 
-			if(value < minValue)
+			double value = evaluate(counts, i, end - start);
+
+			if(minIndex == -1 || value < minValue)
 			{
 				minValue = value;				//if value is less then
 				minIndex = i;					//current min then update min
 			}
 		}
 
-		return attributes.get(minIndex);
+		return minIndex + 1;
 	}
 
 	/***************************************************************************************************/
 
-	//Method evaluates an attribute using weighted average entropy
-	private double evaluate(ArrayList<Record> records, int attribute)
+	//Method counts classes of records in range for each value 0/1 of each
+	//attribute not in used. Count of class c among records with value v for
+	//attribute i (0 based) is at (i*2 + v)*numberClasses + c. Large ranges
+	//are counted by popcount over bitsets of all records, small ranges by
+	//looking up each record. Package-private, as are evaluate and entropy,
+	//for the benchmarks
+	int[] countClasses(int start, int end, BitSet used)
 	{
-		//collect records that have attribute value 0
-		ArrayList<Record> leftRecords = collect(records, attribute, 0);
+		//columns of candidate attributes
+		int numberCandidates = numberAttributes - used.cardinality();
+		int[] columns = new int[numberCandidates];
+		for(int i = used.nextClearBit(0), j = 0; j < numberCandidates; i = used.nextClearBit(i + 1), j++)
+			columns[j] = i;
+
+		int[] counts = new int[numberAttributes * 2 * numberClasses];
+
+		//popcount touches every word once per class, lookup every record
+		if((long)(end - start) * POPCOUNT_RATIO >= (long)numberRecords * numberClasses)
+		{
+			for(int r = start; r < end; r++)
+				members[order[r] >>> 6] |= 1L << order[r];
+
+			for(int j = 0; j < numberCandidates; j++)
+				records.countClasses(members, columns[j], counts, columns[j]*2*numberClasses);
+
+			for(int r = start; r < end; r++)
+				members[order[r] >>> 6] = 0;
+		}
+		else
+		{
+			for(int r = start; r < end; r++)
+			{
+				int record = order[r];
+				int className = records.getClassName(record) - 1;
+
+				for(int j = 0; j < numberCandidates; j++)
+				{
+					int i = columns[j];
+					int value = records.get(record, i);
+
+					//only binary values take part, as in partition
+					if(value == 0 || value == 1)
+						counts[(i*2 + value)*numberClasses + className]++;
+				}
+			}
+		}
+
+		return counts;
+	}
 
-		//collect records that have attribute value 1
-		ArrayList<Record> rightRecords = collect(records, attribute, 1);
+	/***************************************************************************************************/
+
+	//Method evaluates attribute number i of the class counts using weighted
+	//average entropy
+	double evaluate(int[] counts, int i, int numberRecords)
+	{
+		int leftOffset = (i*2)*numberClasses;			//records with value 0
+		int rightOffset = (i*2 + 1)*numberClasses;		//records with value 1
 
-		//find entropy of left records
-		double entropyLeft = entropy(leftRecords);
+		int leftSize = 0;
+		int rightSize = 0;
+		for(int c = 0; c < numberClasses; c++)
+		{
+			leftSize += counts[leftOffset + c];
+			rightSize += counts[rightOffset + c];
+		}
 
-		//find entropy of right records
-		double entropyRight = entropy(rightRecords);
+		//find entropy of left and right records
+		double entropyLeft = entropy(counts, leftOffset, leftSize);
+		double entropyRight = entropy(counts, rightOffset, rightSize);
 
 		//find weighted average entropy
-		double average = entropyLeft*leftRecords.size()/records.size() +
-						 entropyRight*rightRecords.size()/records.size();
+		double average = entropyLeft*leftSize/numberRecords +
+						 entropyRight*rightSize/numberRecords;
 
 		//return weighted average entropy
 		return average;
@@ -262,31 +428,48 @@ public class DecisionTree {
 
 	/***************************************************************************************************/
 
-	//Method finds entropy of records using gini measure
-	private double entropy(ArrayList<Record> records)
+	//Method finds entropy from class counts using gini measure
+	double entropy(int[] counts, int offset, int size)
 	{
-		double[] frequency = new double[numberClasses];		//frequency array
+		double sum = 0;
+		for(int c = 0; c < numberClasses; c++)
+		{
+			double frequency = counts[offset + c];			//normalize freq
+			frequency = frequency/size * 1.0;
+			sum = sum + frequency*frequency;
+		}
 
-		for(int i = 0; i < numberClasses; i++)			
-			frequency[i] = 0;
+		return 1 - sum;
+	}
 
-		for(int i = 0; i < records.size(); i++)				//find class freq
-			frequency[records.get(i).className - 1] += 1;
+	/***************************************************************************************************/
 
-		for(int i = 0; i < numberClasses; i++)				//normalize freq
-			frequency[i] = frequency[i]/records.size() * 1.0;
+	//Method finds class of given attributes (package-private for the
+	//benchmarks)
+	int classify(int[] attributes)
+	{
+		if(linked)
+			return classifyLinked(attributes);
 
-		double sum = 0;
-		for(int i = 0; i < numberClasses; i++)
-			sum = sum + frequency[i]*frequency[i];
+		//start at root node
+		int node = 0;
 
-		return 1 - sum;
+		//go down the tree, 0 - go left, 1 - go right
+		while(treeCondition[node] >= 0)
+		{
+			if(attributes[treeCondition[node]] == 0)
+				node = treeLeft[node];
+			else
+				node = treeRight[node];
+		}
+
+		return treeClass[node];
 	}
 
 	/***************************************************************************************************/
 
-	//Method finds class of given attributes
-	private int classify(int[] attributes)
+	//Method finds class of given attributes by walking Node objects
+	private int classifyLinked(int[] attributes)
 	{
 		//start at root node
 		Node current = root;
@@ -308,15 +491,15 @@ public class DecisionTree {
 	//Method loads training records from training file
 	public void loadTrainingData(String trainingFile) throws IOException
 	{
-		Scanner inFile = new Scanner(new File(trainingFile));
+		DataTokenizer inFile = new DataTokenizer(trainingFile);
 
 		// read number of records, attributes, classes
 		numberRecords = inFile.nextInt();
 		numberAttributes = inFile.nextInt();
 		numberClasses = inFile.nextInt();
 
-		// empty list of records
-		records = new ArrayList<Record>();
+		// empty store of records
+		records = new BitRecordStore(numberRecords, numberAttributes, numberClasses);
 
 		// for each record
 		for (int i = 0; i < numberRecords; i++) {
@@ -327,39 +510,67 @@ public class DecisionTree {
 			//for each attribute
 			for(int j = 0; j < numberAttributes; j++)
 			{
-				//read attribute
-				String label = inFile.next();
-				//convert to binary
-				attributeArray[j] = convert(label, j+1);
+				//read attribute, converted to binary
+				attributeArray[j] = readAttribute(inFile, j+1);
 			}
 
 			//read class and convert to integer value
 			String label = inFile.next();
 			int className = convert(label);
 
-			//create record using attributes and class
-			Record record = new Record(attributeArray, className);
-
-			//add record to list
-			records.add(record);
+			//add record to store
+			records.add(attributeArray, className);
 
 		}
 
-		//create list of attributes
-		attributes = new ArrayList<Integer>();
-		for(int i = 0; i < numberAttributes; i++)
-			attributes.add(i+1);
-
 		inFile.close();		
 	}
 
 	/***************************************************************************************************/
 
+	//Method loads training records from binary dataset file made from a
+	//training file by saveBinaryData or DatasetConverter
+	public void loadBinaryData(String binaryFile) throws IOException
+	{
+		BinaryDataset dataset = BinaryDataset.openInts(binaryFile);
+
+		//read number of records, attributes, classes
+		numberRecords = dataset.getNumberRecords();
+		numberAttributes = dataset.getNumberAttributes();
+		numberClasses = dataset.getNumberClasses();
+
+		//store of records, attributes are already binary
+		records = new BitRecordStore(numberRecords, numberAttributes, numberClasses);
+		records.load(dataset);
+
+		dataset.close();
+	}
+
+	/***************************************************************************************************/
+
+	//Method saves training records as binary dataset file
+	public void saveBinaryData(String binaryFile) throws IOException
+	{
+		int[][] columns = new int[numberAttributes][numberRecords];
+		int[] classes = new int[numberRecords];
+
+		//split records into attribute columns
+		for (int i = 0; i < numberRecords; i++) {
+			for(int j = 0; j < numberAttributes; j++)
+				columns[j][i] = records.get(i, j);
+			classes[i] = records.getClassName(i);
+		}
+
+		BinaryDataset.write(binaryFile, numberClasses, columns, classes);
+	}
+
+	/***************************************************************************************************/
+
 	//Method reads test records from test file and writes classified records
 	//to classified file
 	public void classifyData(String testFile, String classifiedFile) throws IOException
 	{
-		Scanner inFile = new Scanner(new File(testFile));
+		DataTokenizer inFile = new DataTokenizer(testFile);
 		PrintWriter outFile = new PrintWriter(new FileWriter(classifiedFile));
 
 		//read number of records
@@ -374,8 +585,7 @@ public class DecisionTree {
 			//read attributes and convert to binary
 			for(int j = 0; j < numberAttributes; j++)
 			{
-				String label = inFile.next();
-				attributeArray[j] = convert(label, j+1);
+				attributeArray[j] = readAttribute(inFile, j+1);
 			}
 
 			//find class of attributes
@@ -392,11 +602,55 @@ public class DecisionTree {
 
 	/***************************************************************************************************/
 
+	//Method reads test records from a test file without record count until
+	//end of file and writes classified records to classified file. Records
+	//are read, classified and written in batches whose arrays are reused, so
+	//memory does not grow with the test file
+	public void classifyStream(String testFile, String classifiedFile) throws IOException
+	{
+		DataTokenizer inFile = new DataTokenizer(testFile);
+		BufferedWriter outFile = new BufferedWriter(new FileWriter(classifiedFile), STREAM_BUFFER);
+
+		//reused batch of test records and their classes
+		int[][] batch = new int[STREAM_BATCH][numberAttributes];
+		int[] classes = new int[STREAM_BATCH];
+
+		while(inFile.hasNext())
+		{
+			//read attributes of next batch and convert to binary
+			int size = 0;
+			while(size < STREAM_BATCH && inFile.hasNext())
+			{
+				for(int j = 0; j < numberAttributes; j++)
+				{
+					batch[size][j] = readAttribute(inFile, j+1);
+				}
+				size++;
+			}
+
+			//find classes of batch
+			for(int i = 0; i < size; i++)
+				classes[i] = classify(batch[i]);
+
+			//find class names and write to output file in original order
+			for(int i = 0; i < size; i++)
+			{
+				outFile.write(convert(classes[i]));
+				outFile.newLine();
+			}
+		}
+
+		inFile.close();
+		outFile.close();
+	}
+
+	/***************************************************************************************************/
+
 	//Method validates decision tree using validation file and displays
 	//error rate
 	public void validate(String validationFile) throws IOException
 	{
-		Scanner inFile = new Scanner(new File(validationFile));
+		DataTokenizer inFile = new DataTokenizer(validationFile);
 
 		//read number of records
 		int numberRecords = inFile.nextInt();
@@ -413,8 +667,7 @@ public class DecisionTree {
 			//read attributes and convert to binary
 			for(int j = 0; j < numberAttributes; j++)
 			{
-				String label = inFile.next();
-				attributeArray[j] = convert(label, j+1);
+				attributeArray[j] = readAttribute(inFile, j+1);
 			}
 
 			//read actual class from validation file
@@ -438,67 +691,63 @@ public class DecisionTree {
 
 	/***************************************************************************************************/
 
-	//Method converts attributes labels to binary values, hard coded for
+	//Method declares how labels are converted to binary values, hard coded for
 	//specific application
-	private int convert(String label, int column)
+	private static DatasetSchema defaultSchema()
 	{
-		int value;
-
-		//convert attribute labels to binary values
-		if(column == 1)
-			if(label.equals("highschool")) value = 0; else value = 1;
-		else if (column == 2)
-			if(label.equals("smoker")) value = 0; else value = 1;
-		else if (column == 3)
-			if(label.equals("married")) value = 0; else value = 1;
-		else if (column == 4)
-			if(label.equals("male")) value = 0; else value = 1;
-		else
-			if(label.equals("works")) value = 0; else value = 1;
+		DatasetSchema schema = new DatasetSchema(5);
+
+		//education: highschool 0, other 1
+		schema.setCategorical(1, new String[] { "highschool" }, new double[] { 0 }, 1);
+		//smoking: smoker 0, other 1
+		schema.setCategorical(2, new String[] { "smoker" }, new double[] { 0 }, 1);
+		//marital status: married 0, other 1
+		schema.setCategorical(3, new String[] { "married" }, new double[] { 0 }, 1);
+		//sex: male 0, other 1
+		schema.setCategorical(4, new String[] { "male" }, new double[] { 0 }, 1);
+		//employment: works 0, other 1
+		schema.setCategorical(5, new String[] { "works" }, new double[] { 0 }, 1);
+
+		//class labels, unknown label is the last class
+		schema.setClasses(new String[] { "highrisk", "mediumrisk", "lowrisk", "undetermined" });
+
+		return schema;
+	}
 
-		return value;
+	/***************************************************************************************************/
+
+	//Method reads attribute of column from file, numbers of numeric columns
+	//are parsed straight from the bytes and labels go through the schema
+	private int readAttribute(DataTokenizer inFile, int column) throws IOException
+	{
+		if (schema.isNumber(column))
+			return (int) schema.encode(inFile.nextDouble(), column);
+
+		return convert(inFile.next(), column);
 	}
 
 	/***************************************************************************************************/
 
-	//Method converts class labels to integer values, hard coded for
-	//specific application
+	//Method converts attribute labels to binary values using schema
+	private int convert(String label, int column)
+	{
+		return (int) schema.encode(label, column);
+	}
+
+	/***************************************************************************************************/
+
+	//Method converts class labels to integer values using schema
 	private int convert(String label)
 	{
-		int value;
-
-		//convert class labels to integer values
-		if(label.equals("highrisk"))
-			value = 1;
-		else if (label.equals("mediumrisk"))
-			value = 2;
-		else if(label.equals("lowrisk"))
-			value = 3;
-		else	
-			value = 4;
-
-		return value;
+		return schema.encodeClass(label);
 	}
 
 	/***************************************************************************************************/
 
-	//Method converts integer values to class labels, hard coded for
-	//specific application
+	//Method converts integer values to class labels using schema
 	private String convert(int value)
 	{
-		String label;
-
-		//convert integer values to class labels
-		if(value == 1)
-			label = "highrisk";
-		else if (value == 2)
-			label = "mediumrisk";
-		else if (value == 3)
-			label = "lowrisk";
-		else
-			label = "undetermined";
-
-		return label;
+		return schema.decodeClass(value);
 	}
 
 }
@@ -1,11 +1,12 @@
 package First;
 
-import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.ArrayList;
-import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
 
 public class DecisionTree1 {
 
@@ -85,13 +86,72 @@ public class DecisionTree1 {
 
 	/***************************************************************************************************/
 
+	// Subtree construction task for the parallel builder
+	@SuppressWarnings("serial")
+	private class BuildTask extends RecursiveTask<Node> {
+		private ArrayList<Record> records; // records of subtree
+		private ArrayList<Integer> attributes; // attributes left for subtree
+
+		// Constructor of task
+		private BuildTask(ArrayList<Record> records, ArrayList<Integer> attributes) {
+			this.records = records;
+			this.attributes = attributes;
+		}
+
+		// build subtree, forking its own subtrees while they are large
+		protected Node compute() {
+			return build(records, attributes);
+		}
+	}
+
+	/***************************************************************************************************/
+
+	// Attribute scoring task for the parallel builder
+	@SuppressWarnings("serial")
+	private class ScoreTask extends RecursiveAction {
+		private ArrayList<Record> records; // records to split
+		private ArrayList<Integer> attributes; // candidate attributes
+		private double[] values; // score of each candidate
+		private int start; // first candidate of range
+		private int end; // one past last candidate of range
+
+		// Constructor of task
+		private ScoreTask(ArrayList<Record> records, ArrayList<Integer> attributes, double[] values, int start,
+				int end) {
+			this.records = records;
+			this.attributes = attributes;
+			this.values = values;
+			this.start = start;
+			this.end = end;
+		}
+
+		// score a single candidate directly, otherwise split range in halves
+		protected void compute() {
+			if (end - start == 1)
+				values[start] = evaluate(records, attributes.get(start));
+			else {
+				int middle = (start + end) >>> 1;
+				invokeAll(new ScoreTask(records, attributes, values, start, middle),
+						new ScoreTask(records, attributes, values, middle, end));
+			}
+		}
+	}
+
+	/***************************************************************************************************/
+
+	// default number of records at or above which the parallel builder forks
+	private static final int PARALLEL_THRESHOLD = 2048;
+
 	private Node root; // root of decision tree
 	private ArrayList<Record> records; // list of training records
 	private ArrayList<Integer> attributes; // list of attributes
 	private int numberRecords; // number of training records
 	private int numberAttributes; // number of attributes
 	private int numberClasses; // number of classes
+	private DatasetSchema schema; // converts labels to numbers
 	private String entropyRule;	//measurement of entropy: Gini, Class, Shannon
+	private int parallelism; // number of threads building the tree
+	private int parallelThreshold; // records at or above which work is forked
 
 	/***************************************************************************************************/
 
@@ -103,7 +163,10 @@ public class DecisionTree1 {
 		numberRecords = 0;
 		numberAttributes = 0;
 		numberClasses = 0;
+		schema = defaultSchema(); // application schema
 		entropyRule = "Gini";
+		parallelism = 1; // build on calling thread
+		parallelThreshold = PARALLEL_THRESHOLD;
 	}
 
 	/***************************************************************************************************/
@@ -144,15 +207,78 @@ public class DecisionTree1 {
 
 	/***************************************************************************************************/
 
+	// Method to reset schema, e.g. one learned from a training file by
+	// DatasetSchema.learnBinary. Every column must convert to 0 or 1
+	public void setSchema(DatasetSchema schema) {
+		if (!schema.isBinary())
+			throw new IllegalArgumentException("Error: decision tree needs a binary schema.");
+
+		this.schema = schema;
+	}
+
+	/***************************************************************************************************/
+
+	// Method to reset number of threads used by buildTree, 1 builds on the
+	// calling thread. The tree built is the same for any number of threads
+	public void setParallelism(int threads) {
+
+		if (threads > 1)
+			parallelism = threads;
+		// in case of mis-input
+		else
+			parallelism = 1;
+	}
+
+	/***************************************************************************************************/
+
+	// Method to reset number of records at or above which the parallel
+	// builder forks subtrees and scores attributes concurrently, smaller
+	// nodes are built sequentially
+	public void setParallelThreshold(int records) {
+
+		if (records > 0)
+			parallelThreshold = records;
+		// in case of mis-input
+		else
+			parallelThreshold = PARALLEL_THRESHOLD;
+	}
+
+	/***************************************************************************************************/
+
 	// Method builds decision tree for the whole training data
 	public void buildTree() {
 		
-		root = build(records, attributes); // initial call to build method
+		if (parallelism <= 1)
+			root = build(records, attributes); // initial call to build method
+		else {
+			ForkJoinPool pool = new ForkJoinPool(parallelism);
+			try {
+				buildTree(pool);
+			} finally {
+				pool.shutdown();
+			}
+		}
 		
 	}
 
 	/***************************************************************************************************/
 
+	// Method builds decision tree for the whole training data on given pool,
+	// so that many trees can share one
+	private void buildTree(ForkJoinPool pool) {
+		root = pool.invoke(new BuildTask(records, attributes));
+	}
+
+	/***************************************************************************************************/
+
+	// Method decides whether work on given records is forked, only inside
+	// the pool of buildTree
+	private boolean forks(ArrayList<Record> records) {
+		return parallelism > 1 && records.size() >= parallelThreshold;
+	}
+
+	/***************************************************************************************************/
+
 	// Method builds decision tree from given records and attributes, returns
 	// root of tree that is build
 	private Node build(ArrayList<Record> records, ArrayList<Integer> attributes) {
@@ -234,11 +360,19 @@ public class DecisionTree1 {
 				// create internal node with the best condition
 				node = new Node("internal", condition, null, null);
 
-				// create left subtree recursively
-				node.left = build(leftRecords, leftAttributes);
+				if (forks(records)) {
+					// create left subtree in another task, right one here
+					BuildTask left = new BuildTask(leftRecords, leftAttributes);
+					left.fork();
+					node.right = build(rightRecords, rightAttributes);
+					node.left = left.join();
+				} else {
+					// create left subtree recursively
+					node.left = build(leftRecords, leftAttributes);
 
-				// create right subtree recursively
-				node.right = build(rightRecords, rightAttributes);
+					// create right subtree recursively
+					node.right = build(rightRecords, rightAttributes);
+				}
 
 			}
 		}
@@ -306,13 +440,21 @@ public class DecisionTree1 {
 
 	// Method finds best condition for given records and attributes
 	private int bestCondition(ArrayList<Record> records, ArrayList<Integer> attributes) {
+		// score all attributes first, concurrently for large nodes
+		double[] values = new double[attributes.size()];
+		if (forks(records))
+			new ScoreTask(records, attributes, values, 0, values.length).invoke();
+		else
+			for (int i = 0; i < values.length; i++)
+				values[i] = evaluate(records, attributes.get(i));
+
 		// evaluate first attribute
-		double minValue = evaluate(records, attributes.get(0));
+		double minValue = values[0];
 		int minIndex = 0;
 
-		// go thru all attributes
+		// go thru all attributes, in order so that ties pick the same one
 		for (int i = 0; i < attributes.size(); i++) {
-			double value = evaluate(records, attributes.get(i));
+			double value = values[i];
 
 			if (value < minValue) {
 				minValue = value; // if value is less then
@@ -459,7 +601,7 @@ public class DecisionTree1 {
 	// in file3 attributes are [0,1]
 	// class are [1,2,3,4]
 	public void loadTrainingData(String trainingFile) throws IOException {
-		Scanner inFile = new Scanner(new File(trainingFile));
+		DataTokenizer inFile = new DataTokenizer(trainingFile);
 
 		// read number of records, attributes, classes
 		numberRecords = inFile.nextInt();
@@ -503,12 +645,68 @@ public class DecisionTree1 {
 
 	/***************************************************************************************************/
 
+	// Method loads training records from binary dataset file made from a
+	// training file by saveBinaryData or DatasetConverter
+	public void loadBinaryData(String binaryFile) throws IOException {
+		BinaryDataset dataset = BinaryDataset.openInts(binaryFile);
+
+		// read number of records, attributes, classes
+		numberRecords = dataset.getNumberRecords();
+		numberAttributes = dataset.getNumberAttributes();
+		numberClasses = dataset.getNumberClasses();
+
+		// empty list of records
+		records = new ArrayList<Record>();
+
+		// attributes are already binary, copied a whole column at a time
+		int[][] attributeArrays = new int[numberRecords][numberAttributes];
+		int[] column = new int[numberRecords];
+		for (int j = 0; j < numberAttributes; j++) {
+			dataset.getColumn(j, column);
+			for (int i = 0; i < numberRecords; i++)
+				attributeArrays[i][j] = column[i];
+		}
+
+		int[] classNames = new int[numberRecords];
+		dataset.getClassNames(classNames);
+
+		// for each record
+		for (int i = 0; i < numberRecords; i++)
+			records.add(new Record(attributeArrays[i], classNames[i]));
+
+		// create list of attributes
+		attributes = new ArrayList<Integer>();
+		for (int i = 0; i < numberAttributes; i++)
+			attributes.add(i + 1);
+
+		dataset.close();
+	}
+
+	/***************************************************************************************************/
+
+	// Method saves training records as binary dataset file
+	public void saveBinaryData(String binaryFile) throws IOException {
+		int[][] columns = new int[numberAttributes][numberRecords];
+		int[] classes = new int[numberRecords];
+
+		// split records into attribute columns
+		for (int i = 0; i < numberRecords; i++) {
+			for (int j = 0; j < numberAttributes; j++)
+				columns[j][i] = records.get(i).attributes[j];
+			classes[i] = records.get(i).className;
+		}
+
+		BinaryDataset.write(binaryFile, numberClasses, columns, classes);
+	}
+
+	/***************************************************************************************************/
+
 	// Method reads test records from test file and writes classified records
 	// to classified file
 	// in file3 attributes are [0,1]
 	// class are [1,2,3,4]
 	public void classifyData(String testFile, String classifiedFile) throws IOException {
-		Scanner inFile = new Scanner(new File(testFile));
+		DataTokenizer inFile = new DataTokenizer(testFile);
 		PrintWriter outFile = new PrintWriter(new FileWriter(classifiedFile));
 
 		// read number of records
@@ -583,20 +781,27 @@ public class DecisionTree1 {
 		// initialize number of errors
 		int numberErrors = 0;
 
-		for (int i = 0; i < numberRecords; i++) {
-			
-			Record theOne = records.get(i);
+		// cut-out trees are built one after another, all on one pool
+		ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+		try {
+			for (int i = 0; i < numberRecords; i++) {
 
-			DecisionTree1 cutOutTree = new DecisionTree1();
-			cutOutTree.loadTrainingData(trainingFile);
-			cutOutTree.setEntropyRule(entropyRule);
-			cutOutTree.cutRecord(i);
-			cutOutTree.buildTree();
+				Record theOne = records.get(i);
 
-			int predictedClass = cutOutTree.classify(theOne.attributes);
+				DecisionTree1 cutOutTree = cutOut(i);
+				if (pool == null)
+					cutOutTree.buildTree();
+				else
+					cutOutTree.buildTree(pool);
 
-			if (predictedClass != theOne.className)
-				numberErrors++;
+				int predictedClass = cutOutTree.classify(theOne.attributes);
+
+				if (predictedClass != theOne.className)
+					numberErrors++;
+			}
+		} finally {
+			if (pool != null)
+				pool.shutdown();
 		}
 
 		// find and print error rate
@@ -609,12 +814,32 @@ public class DecisionTree1 {
 
 	/***************************************************************************************************/
 
+	// Method returns unbuilt tree with the settings and loaded records of
+	// this tree, less the record at given index
+	private DecisionTree1 cutOut(int index) {
+		DecisionTree1 cutOutTree = new DecisionTree1();
+		cutOutTree.schema = schema;
+		cutOutTree.entropyRule = entropyRule;
+		cutOutTree.parallelism = parallelism;
+		cutOutTree.parallelThreshold = parallelThreshold;
+		cutOutTree.records = new ArrayList<Record>(records);
+		cutOutTree.attributes = attributes;
+		cutOutTree.numberRecords = numberRecords;
+		cutOutTree.numberAttributes = numberAttributes;
+		cutOutTree.numberClasses = numberClasses;
+		cutOutTree.cutRecord(index);
+
+		return cutOutTree;
+	}
+
+	/***************************************************************************************************/
+
 	// Method validates decision tree using validation file and displays
 	// error rate
 	// in file3 attributes are [0,1]
 	// class are [1,2,3,4]
 	public void validate(String validationFile) throws IOException {
-		Scanner inFile = new Scanner(new File(validationFile));
+		DataTokenizer inFile = new DataTokenizer(validationFile);
 
 		// read number of records
 		int numberRecords = inFile.nextInt();
@@ -629,8 +854,7 @@ public class DecisionTree1 {
 
 			// read attributes and convert to binary
 			for (int j = 0; j < numberAttributes; j++) {
-				String label = inFile.next();
-				attributeArray[j] = convert(label, j + 1);
+				attributeArray[j] = readAttribute(inFile, j + 1);
 			}
 
 			// read actual class from validation file
@@ -654,78 +878,58 @@ public class DecisionTree1 {
 
 	/***************************************************************************************************/
 
-	// Method converts attributes labels to binary values, hard coded for
+	// Method declares how labels are converted to binary values, hard coded for
 	// specific application
-	private int convert(String label, int column) {
-		int value;
+	private static DatasetSchema defaultSchema() {
+		DatasetSchema schema = new DatasetSchema(5);
+
+		// education: highschool 0, other 1
+		schema.setCategorical(1, new String[] { "highschool" }, new double[] { 0 }, 1);
+		// smoking: smoker 0, other 1
+		schema.setCategorical(2, new String[] { "smoker" }, new double[] { 0 }, 1);
+		// marital status: married 0, other 1
+		schema.setCategorical(3, new String[] { "married" }, new double[] { 0 }, 1);
+		// sex: male 0, other 1
+		schema.setCategorical(4, new String[] { "male" }, new double[] { 0 }, 1);
+		// employment: works 0, other 1
+		schema.setCategorical(5, new String[] { "works" }, new double[] { 0 }, 1);
+
+		// class labels, unknown label is the last class
+		schema.setClasses(new String[] { "highrisk", "mediumrisk", "lowrisk", "undetermined" });
+
+		return schema;
+	}
 
-		// convert attribute labels to binary values
-		if (column == 1)
-			if (label.equals("highschool"))
-				value = 0;
-			else
-				value = 1;
-		else if (column == 2)
-			if (label.equals("smoker"))
-				value = 0;
-			else
-				value = 1;
-		else if (column == 3)
-			if (label.equals("married"))
-				value = 0;
-			else
-				value = 1;
-		else if (column == 4)
-			if (label.equals("male"))
-				value = 0;
-			else
-				value = 1;
-		else if (label.equals("works"))
-			value = 0;
-		else
-			value = 1;
+	/***************************************************************************************************/
+
+	// Method reads attribute of column from file, numbers of numeric columns
+	// are parsed straight from the bytes and labels go through the schema
+	private int readAttribute(DataTokenizer inFile, int column) throws IOException {
+		if (schema.isNumber(column))
+			return (int) schema.encode(inFile.nextDouble(), column);
 
-		return value;
+		return convert(inFile.next(), column);
 	}
 
 	/***************************************************************************************************/
 
-	// Method converts class labels to integer values, hard coded for
-	// specific application
-	private int convert(String label) {
-		int value;
-
-		// convert class labels to integer values
-		if (label.equals("highrisk"))
-			value = 1;
-		else if (label.equals("mediumrisk"))
-			value = 2;
-		else if (label.equals("lowrisk"))
-			value = 3;
-		else
-			value = 4;
+	// Method converts attribute labels to binary values using schema
+	private int convert(String label, int column) {
+		return (int) schema.encode(label, column);
+	}
 
-		return value;
+	/***************************************************************************************************/
+
+	// Method converts class labels to integer values using schema
+	private int convert(String label) {
+		return schema.encodeClass(label);
 	}
 
 	/***************************************************************************************************/
 
-	// Method converts integer values to class labels, hard coded for
-	// specific application
+	// Method converts integer values to class labels using schema
 	private String convert(int value) {
-		String label;
-
-		// convert integer values to class labels
-		if (value == 1)
-			label = "highrisk";
-		else if (value == 2)
-			label = "mediumrisk";
-		else if (value == 3)
-			label = "lowrisk";
-		else
-			label = "undetermined";
-
-		return label;
+		return schema.decodeClass(value);
 	}
 
 }
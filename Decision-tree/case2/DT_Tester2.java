@@ -19,6 +19,9 @@ public class DT_Tester2 {
 		//build decision tree	
 		classifier.buildTree();
 		
+		//run leave one out iterations on every core
+		classifier.setParallelism(Runtime.getRuntime().availableProcessors());
+		
 		classifier.trainingError("DT_trainingFile2");
 		classifier.leaveOneOutValidation("DT_trainingFile2");
 		
@@ -1,11 +1,11 @@
 package First;
 
-import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.ArrayList;
-import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 // Java Programmer Employment
 // attribute: CS degree or not;
@@ -94,13 +94,42 @@ public class DecisionTree2 {
 
 	/***************************************************************************************************/
 
+	// Leave one out task, runs the iterations of a range of held out records
+	@SuppressWarnings("serial")
+	private class LeaveOneOutTask extends RecursiveAction {
+		private boolean[] wrong; // whether held out record was misclassified
+		private int start; // first held out record of range
+		private int end; // one past last held out record of range
+
+		// Constructor of task
+		private LeaveOneOutTask(boolean[] wrong, int start, int end) {
+			this.wrong = wrong;
+			this.start = start;
+			this.end = end;
+		}
+
+		// run a single iteration directly, otherwise split range in halves
+		protected void compute() {
+			if (end - start == 1)
+				wrong[start] = !classifiesHeldOut(start);
+			else {
+				int middle = (start + end) >>> 1;
+				invokeAll(new LeaveOneOutTask(wrong, start, middle), new LeaveOneOutTask(wrong, middle, end));
+			}
+		}
+	}
+
+	/***************************************************************************************************/
+
 	private Node root; // root of decision tree
 	private ArrayList<Record> records; // list of training records
 	private ArrayList<Integer> attributes; // list of attributes
 	private int numberRecords; // number of training records
 	private int numberAttributes; // number of attributes
 	private int numberClasses; // number of classes
+	private DatasetSchema schema; // converts labels to numbers
 	private String entropyRule; // option: gini, class, shannon
+	private int parallelism; // number of threads running validation
 
 	/***************************************************************************************************/
 
@@ -112,7 +141,20 @@ public class DecisionTree2 {
 		numberRecords = 0;
 		numberAttributes = 0;
 		numberClasses = 0;
+		schema = defaultSchema(); // application schema
 		entropyRule = "Gini";
+		parallelism = 1; // validate on calling thread
+	}
+
+	/***************************************************************************************************/
+
+	// Method to reset schema, e.g. one learned from a training file by
+	// DatasetSchema.learnBinary. Every column must convert to 0 or 1
+	public void setSchema(DatasetSchema schema) {
+		if (!schema.isBinary())
+			throw new IllegalArgumentException("Error: decision tree needs a binary schema.");
+
+		this.schema = schema;
 	}
 
 	/***************************************************************************************************/
@@ -150,30 +192,47 @@ public class DecisionTree2 {
 
 	/***************************************************************************************************/
 
+	// Method to reset number of threads used by leaveOneOutValidation and
+	// crossValidation, 1 runs the iterations on the calling thread
+	public void setParallelism(int threads) {
+
+		if (threads > 1)
+			parallelism = threads;
+		// in case of mis-input
+		else
+			parallelism = 1;
+	}
+
+	/***************************************************************************************************/
+
 	// Method builds decision tree for the whole training data
 	public void buildTree() {
-		root = build(records, attributes); // initial call to build method
+		root = build(records, attributes, -1); // initial call to build method
 	}
 
 	/***************************************************************************************************/
 
 	// Method builds decision tree from given records and attributes, returns
-	// root of tree that is build
-	private Node build(ArrayList<Record> records, ArrayList<Integer> attributes) {
+	// root of tree that is build. The record at index skip (-1 if none) is
+	// left out, and so never reaches the subtrees
+	private Node build(ArrayList<Record> records, ArrayList<Integer> attributes, int skip) {
 
 		// root node is empty initially
 		Node node = null;
 
+		// number of records the node is built from
+		int size = skip < 0 ? records.size() : records.size() - 1;
+
 		// if all records have same class
-		if (sameClass(records)) {
+		if (sameClass(records, skip)) {
 
 			// debug
 			// System.out.println("Leaf: same class");
 
 			// find class name
-			int className = records.get(0).className;
+			int className = records.get(skip == 0 ? 1 : 0).className;
 
-			double confidenceRec = 100.0 * records.size() / numberRecords;
+			double confidenceRec = 100.0 * size / numberRecords;
 			double confidenceMaj = 100.0; // all with same class
 
 			// node is leaf with that class
@@ -185,28 +244,28 @@ public class DecisionTree2 {
 			// debug
 			// System.out.println("Leaf: empty attribute");
 
-			int[] tmp = majorityClass(records);
+			int[] tmp = majorityClass(records, skip);
 
 			// find majority class of records
 			int className = tmp[0];
 
 			// find majority class amount
 			int numberMaj = tmp[1];
-			double confidenceMaj = 100.0 * numberMaj / records.size();
-			double confidenceRec = 100.0 * records.size() / numberRecords;
+			double confidenceMaj = 100.0 * numberMaj / size;
+			double confidenceRec = 100.0 * size / numberRecords;
 
 			// node is leaf with that class
 			node = new Node("leaf", className, null, null, confidenceMaj, confidenceRec);
 
 		} else {
 			// find best condition for current records and attributes
-			int condition = bestCondition(records, attributes);
+			int condition = bestCondition(records, attributes, skip);
 
 			// collect all records which have 0 for condition
-			ArrayList<Record> leftRecords = collect(records, condition, 0);
+			ArrayList<Record> leftRecords = collect(records, condition, 0, skip);
 
 			// collect all records which have 1 for condition
-			ArrayList<Record> rightRecords = collect(records, condition, 1);
+			ArrayList<Record> rightRecords = collect(records, condition, 1, skip);
 
 			// if either left records or right is empty
 			if (leftRecords.isEmpty() || rightRecords.isEmpty()) {
@@ -214,15 +273,15 @@ public class DecisionTree2 {
 				// debug
 				// System.out.println("Leaf: empty left || right");
 
-				int[] tmp = majorityClass(records);
+				int[] tmp = majorityClass(records, skip);
 
 				// find majority class of records
 				int className = tmp[0];
 
 				// find majority class amount
 				int numberMaj = tmp[1];
-				double confidenceMaj = 100.0 * numberMaj / records.size();
-				double confidenceRec = 100.0 * records.size() / numberRecords;
+				double confidenceMaj = 100.0 * numberMaj / size;
+				double confidenceRec = 100.0 * size / numberRecords;
 
 				// node is leaf with that class
 				node = new Node("leaf", className, null, null, confidenceMaj, confidenceRec);
@@ -239,10 +298,10 @@ public class DecisionTree2 {
 				node = new Node("internal", condition, null, null);
 
 				// create left subtree recursively
-				node.left = build(leftRecords, leftAttributes);
+				node.left = build(leftRecords, leftAttributes, -1);
 
 				// create right subtree recursively
-				node.right = build(rightRecords, rightAttributes);
+				node.right = build(rightRecords, rightAttributes, -1);
 
 			}
 		}
@@ -254,11 +313,14 @@ public class DecisionTree2 {
 
 	/***************************************************************************************************/
 
-	// Method decides whether all records have the same class
-	private boolean sameClass(ArrayList<Record> records) {
+	// Method decides whether all records but the one at index skip have the
+	// same class
+	private boolean sameClass(ArrayList<Record> records, int skip) {
+		int first = skip == 0 ? 1 : 0;
+
 		// compare class of each record with class of first record
 		for (int i = 0; i < records.size(); i++)
-			if (records.get(i).className != records.get(0).className)
+			if (i != skip && records.get(i).className != records.get(first).className)
 				return false;
 
 		return true;
@@ -270,14 +332,15 @@ public class DecisionTree2 {
 	/*
 	 * @output: [0] majority class name [1] majority class amount
 	 */
-	private int[] majorityClass(ArrayList<Record> records) {
+	private int[] majorityClass(ArrayList<Record> records, int skip) {
 		int[] frequency = new int[numberClasses]; // frequency array
 
 		for (int i = 0; i < numberClasses; i++) // ini frequency array
 			frequency[i] = 0;
 
 		for (int i = 0; i < records.size(); i++) // find frequency of classes
-			frequency[records.get(i).className - 1] += 1;
+			if (i != skip)
+				frequency[records.get(i).className - 1] += 1;
 
 		int maxIndex = 0; // find class with max frequency
 		for (int i = 0; i < numberClasses; i++)
@@ -290,15 +353,16 @@ public class DecisionTree2 {
 
 	/***************************************************************************************************/
 
-	// Method collects records that have a given value for a given attribute
-	private ArrayList<Record> collect(ArrayList<Record> records, int condition, int value) {
+	// Method collects records that have a given value for a given attribute,
+	// but the one at index skip
+	private ArrayList<Record> collect(ArrayList<Record> records, int condition, int value, int skip) {
 		// initialize collection
 		ArrayList<Record> result = new ArrayList<>();
 
 		// go thru records and collect those that that have given value
 		// for given attribute
 		for (int i = 0; i < records.size(); i++)
-			if (records.get(i).attributes[condition - 1] == value)
+			if (i != skip && records.get(i).attributes[condition - 1] == value)
 				result.add(records.get(i));
 
 		// return collection
@@ -308,14 +372,14 @@ public class DecisionTree2 {
 	/***************************************************************************************************/
 
 	// Method finds best condition for given records and attributes
-	private int bestCondition(ArrayList<Record> records, ArrayList<Integer> attributes) {
+	private int bestCondition(ArrayList<Record> records, ArrayList<Integer> attributes, int skip) {
 		// evaluate first attribute
-		double minValue = evaluate(records, attributes.get(0));
+		double minValue = evaluate(records, attributes.get(0), skip);
 		int minIndex = 0;
 
 		// go thru all attributes
 		for (int i = 0; i < attributes.size(); i++) {
-			double value = evaluate(records, attributes.get(i));
+			double value = evaluate(records, attributes.get(i), skip);
 
 			if (value < minValue) {
 				minValue = value; // if value is less then
@@ -329,12 +393,15 @@ public class DecisionTree2 {
 	/***************************************************************************************************/
 
 	// Method evaluates an attribute using weighted average entropy
-	private double evaluate(ArrayList<Record> records, int attribute) {
+	private double evaluate(ArrayList<Record> records, int attribute, int skip) {
+		// number of records evaluated
+		int size = skip < 0 ? records.size() : records.size() - 1;
+
 		// collect records that have attribute value 0
-		ArrayList<Record> leftRecords = collect(records, attribute, 0);
+		ArrayList<Record> leftRecords = collect(records, attribute, 0, skip);
 
 		// collect records that have attribute value 1
-		ArrayList<Record> rightRecords = collect(records, attribute, 1);
+		ArrayList<Record> rightRecords = collect(records, attribute, 1, skip);
 
 		// find entropy of left records
 		double entropyLeft = entropy(leftRecords);
@@ -343,8 +410,8 @@ public class DecisionTree2 {
 		double entropyRight = entropy(rightRecords);
 
 		// find weighted average entropy
-		double average = entropyLeft * leftRecords.size() / records.size()
-				+ entropyRight * rightRecords.size() / records.size();
+		double average = entropyLeft * leftRecords.size() / size
+				+ entropyRight * rightRecords.size() / size;
 
 		// return weighted average entropy
 		return average;
@@ -460,7 +527,7 @@ public class DecisionTree2 {
 	// in file3 attributes are [0,1]
 	// class are [1,2,3,4]
 	public void loadTrainingData(String trainingFile) throws IOException {
-		Scanner inFile = new Scanner(new File(trainingFile));
+		DataTokenizer inFile = new DataTokenizer(trainingFile);
 
 		// read number of records, attributes, classes
 		numberRecords = inFile.nextInt();
@@ -479,10 +546,8 @@ public class DecisionTree2 {
 			// for each attribute
 			for (int j = 0; j < numberAttributes; j++) {
 
-				// read attribute
-				String label = inFile.next();
-				// convert to binary
-				attributeArray[j] = convert(label, j + 1);
+				// read attribute, converted to binary
+				attributeArray[j] = readAttribute(inFile, j + 1);
 
 			}
 
@@ -508,12 +573,68 @@ public class DecisionTree2 {
 
 	/***************************************************************************************************/
 
+	// Method loads training records from binary dataset file made from a
+	// training file by saveBinaryData or DatasetConverter
+	public void loadBinaryData(String binaryFile) throws IOException {
+		BinaryDataset dataset = BinaryDataset.openInts(binaryFile);
+
+		// read number of records, attributes, classes
+		numberRecords = dataset.getNumberRecords();
+		numberAttributes = dataset.getNumberAttributes();
+		numberClasses = dataset.getNumberClasses();
+
+		// empty list of records
+		records = new ArrayList<Record>();
+
+		// attributes are already binary, copied a whole column at a time
+		int[][] attributeArrays = new int[numberRecords][numberAttributes];
+		int[] column = new int[numberRecords];
+		for (int j = 0; j < numberAttributes; j++) {
+			dataset.getColumn(j, column);
+			for (int i = 0; i < numberRecords; i++)
+				attributeArrays[i][j] = column[i];
+		}
+
+		int[] classNames = new int[numberRecords];
+		dataset.getClassNames(classNames);
+
+		// for each record
+		for (int i = 0; i < numberRecords; i++)
+			records.add(new Record(attributeArrays[i], classNames[i]));
+
+		// create list of attributes
+		attributes = new ArrayList<Integer>();
+		for (int i = 0; i < numberAttributes; i++)
+			attributes.add(i + 1);
+
+		dataset.close();
+	}
+
+	/***************************************************************************************************/
+
+	// Method saves training records as binary dataset file
+	public void saveBinaryData(String binaryFile) throws IOException {
+		int[][] columns = new int[numberAttributes][numberRecords];
+		int[] classes = new int[numberRecords];
+
+		// split records into attribute columns
+		for (int i = 0; i < numberRecords; i++) {
+			for (int j = 0; j < numberAttributes; j++)
+				columns[j][i] = records.get(i).attributes[j];
+			classes[i] = records.get(i).className;
+		}
+
+		BinaryDataset.write(binaryFile, numberClasses, columns, classes);
+	}
+
+	/***************************************************************************************************/
+
 	// Method reads test records from test file and writes classified records
 	// to classified file
 	// in file3 attributes are [0,1]
 	// class are [1,2,3,4]
 	public void classifyData(String testFile, String classifiedFile) throws IOException {
-		Scanner inFile = new Scanner(new File(testFile));
+		DataTokenizer inFile = new DataTokenizer(testFile);
 		PrintWriter outFile = new PrintWriter(new FileWriter(classifiedFile));
 
 		// read number of records
@@ -527,8 +648,7 @@ public class DecisionTree2 {
 			// read attributes
 			for (int j = 0; j < numberAttributes; j++) {
 
-				String label = inFile.next();
-				attributeArray[j] = convert(label, j + 1);
+				attributeArray[j] = readAttribute(inFile, j + 1);
 			}
 
 			// find class of attributes
@@ -578,7 +698,8 @@ public class DecisionTree2 {
 	}
 
 	/***************************************************************************************************/
-	// Method to get leave one out validation error rate
+	// Method to get leave one out validation error rate, training file is
+	// only read if no training data is loaded yet
 	public double leaveOneOutValidation(String trainingFile) throws IOException {
 
 		// in case didn't load training file
@@ -587,23 +708,26 @@ public class DecisionTree2 {
 			buildTree();
 		}
 
+		// run every iteration, in parallel if more than one thread is
+		// configured
+		boolean[] wrong = new boolean[numberRecords];
+		if (parallelism <= 1) {
+			for (int i = 0; i < numberRecords; i++)
+				wrong[i] = !classifiesHeldOut(i);
+		} else {
+			ForkJoinPool pool = new ForkJoinPool(parallelism);
+			try {
+				pool.invoke(new LeaveOneOutTask(wrong, 0, numberRecords));
+			} finally {
+				pool.shutdown();
+			}
+		}
+
 		// initialize number of errors
 		int numberErrors = 0;
-
-		for (int i = 0; i < numberRecords; i++) {
-			Record theOne = records.get(i);
-
-			DecisionTree2 cutOutTree = new DecisionTree2();
-			cutOutTree.loadTrainingData(trainingFile);
-			cutOutTree.setEntropyRule(entropyRule);
-			cutOutTree.cutRecord(i);
-			cutOutTree.buildTree();
-
-			int predictedClass = cutOutTree.classify(theOne.attributes);
-
-			if (predictedClass != theOne.className)
+		for (int i = 0; i < numberRecords; i++)
+			if (wrong[i])
 				numberErrors++;
-		}
 
 		// find and print error rate
 		double errorRate = 100.0 * numberErrors / numberRecords;
@@ -614,12 +738,90 @@ public class DecisionTree2 {
 
 	/***************************************************************************************************/
 
+	// Method builds a tree on all loaded records but the given one and
+	// decides whether it classifies the held out record correctly. The
+	// records are shared read-only with this tree, neither parsed again nor
+	// copied, so iterations may run concurrently
+	private boolean classifiesHeldOut(int index) {
+		DecisionTree2 cutOutTree = subTree(records, index);
+
+		Record theOne = records.get(index);
+		return cutOutTree.classify(theOne.attributes) == theOne.className;
+	}
+
+	/***************************************************************************************************/
+
+	// Method builds a tree with the settings of this tree on given records
+	// but the one at index skip (-1 if none). The records are shared with
+	// this tree and not modified
+	private DecisionTree2 subTree(ArrayList<Record> kept, int skip) {
+		DecisionTree2 cutOutTree = new DecisionTree2();
+		cutOutTree.schema = schema;
+		cutOutTree.entropyRule = entropyRule;
+		cutOutTree.records = kept;
+		cutOutTree.attributes = attributes;
+		cutOutTree.numberRecords = skip < 0 ? kept.size() : kept.size() - 1;
+		cutOutTree.numberAttributes = numberAttributes;
+		cutOutTree.numberClasses = numberClasses;
+		cutOutTree.root = cutOutTree.build(kept, attributes, skip);
+
+		return cutOutTree;
+	}
+
+	/***************************************************************************************************/
+
+	// Method to get k-fold cross validation error rate, mode is plain or
+	// stratified. Displays error rate of every fold and of all folds, training
+	// file is only read if no training data is loaded yet
+	public double crossValidation(String trainingFile, int numberFolds, String mode) throws IOException {
+
+		// in case didn't load training file
+		if (records == null || attributes == null) {
+			loadTrainingData(trainingFile);
+			buildTree();
+		}
+
+		CrossValidation validation = new CrossValidation(numberFolds, mode);
+		validation.setParallelism(parallelism);
+
+		// each fold gets a tree built on the records of the other folds
+		validation.run(new CrossValidation.Model() {
+			public int getNumberRecords() {
+				return numberRecords;
+			}
+
+			public int getClassName(int record) {
+				return records.get(record).className;
+			}
+
+			public int[] classifyFold(int[] training, int[] test) {
+				ArrayList<Record> kept = new ArrayList<>(training.length);
+				for (int i = 0; i < training.length; i++)
+					kept.add(records.get(training[i]));
+
+				DecisionTree2 cutOutTree = subTree(kept, -1);
+
+				int[] classes = new int[test.length];
+				for (int i = 0; i < test.length; i++)
+					classes[i] = cutOutTree.classify(records.get(test[i]).attributes);
+
+				return classes;
+			}
+		});
+
+		validation.printResults();
+
+		return validation.getErrorRate();
+	}
+
+	/***************************************************************************************************/
+
 	// Method validates decision tree using validation file and displays
 	// error rate
 	// in file3 attributes are [0,1]
 	// class are [1,2,3,4]
 	public void validate(String validationFile) throws IOException {
-		Scanner inFile = new Scanner(new File(validationFile));
+		DataTokenizer inFile = new DataTokenizer(validationFile);
 
 		// read number of records
 		int numberRecords = inFile.nextInt();
@@ -634,8 +836,7 @@ public class DecisionTree2 {
 
 			// read attributes and convert to binary
 			for (int j = 0; j < numberAttributes; j++) {
-				String label = inFile.next();
-				attributeArray[j] = convert(label, j + 1);
+				attributeArray[j] = readAttribute(inFile, j + 1);
 			}
 
 			// read actual class from validation file
@@ -659,77 +860,60 @@ public class DecisionTree2 {
 
 	/***************************************************************************************************/
 
-	// Method converts attributes labels to binary values, hard coded for
+	// Method declares how labels are converted to binary values, hard coded for
 	// specific application
-	private int convert(String label, int column) {
-		int value;
+	private static DatasetSchema defaultSchema() {
+		DatasetSchema schema = new DatasetSchema(6);
+
+		// degree: cs 0, other 1
+		schema.setCategorical(1, new String[] { "cs" }, new double[] { 0 }, 1);
+		// java knowledge: java 0, other 1
+		schema.setCategorical(2, new String[] { "java" }, new double[] { 0 }, 1);
+		// c/c++ knowledge: c/c++ 0, other 1
+		schema.setCategorical(3, new String[] { "c/c++" }, new double[] { 0 }, 1);
+		// gpa: gpa>3 0, other 1
+		schema.setCategorical(4, new String[] { "gpa>3" }, new double[] { 0 }, 1);
+		// projects: large 0, other 1
+		schema.setCategorical(5, new String[] { "large" }, new double[] { 0 }, 1);
+		// experience: years>5 0, other 1
+		schema.setCategorical(6, new String[] { "years>5" }, new double[] { 0 }, 1);
+
+		// class labels, unknown label is the last class
+		schema.setClasses(new String[] { "hire", "no" });
+
+		return schema;
+	}
 
-		// convert attribute labels to binary values
-		if (column == 1)
-			if (label.equals("cs"))
-				value = 0;
-			else
-				value = 1;
-		else if (column == 2)
-			if (label.equals("java"))
-				value = 0;
-			else
-				value = 1;
-		else if (column == 3)
-			if (label.equals("c/c++"))
-				value = 0;
-			else
-				value = 1;
-		else if (column == 4)
-			if (label.equals("gpa>3"))
-				value = 0;
-			else
-				value = 1;
-		else if (column == 5)
-			if (label.equals("large"))
-				value = 0;
-			else
-				value = 1;
-		else {
-			if (label.equals("years>5"))
-				value = 0;
-			else
-				value = 1;
-		}
+	/***************************************************************************************************/
 
-		return value;
+	// Method reads attribute of column from file, numbers of numeric columns
+	// are parsed straight from the bytes and labels go through the schema
+	private int readAttribute(DataTokenizer inFile, int column) throws IOException {
+		if (schema.isNumber(column))
+			return (int) schema.encode(inFile.nextDouble(), column);
+
+		return convert(inFile.next(), column);
 	}
 
 	/***************************************************************************************************/
 
-	// Method converts class labels to integer values, hard coded for
-	// specific application
-	private int convert(String label) {
-		int value;
+	// Method converts attribute labels to binary values using schema
+	private int convert(String label, int column) {
+		return (int) schema.encode(label, column);
+	}
 
-		// convert class labels to integer values
-		if (label.equals("hire"))
-			value = 1;
-		else
-			value = 2;
+	/***************************************************************************************************/
 
-		return value;
+	// Method converts class labels to integer values using schema
+	private int convert(String label) {
+		return schema.encodeClass(label);
 	}
 
 	/***************************************************************************************************/
 
-	// Method converts integer values to class labels, hard coded for
-	// specific application
+	// Method converts integer values to class labels using schema
 	private String convert(int value) {
-		String label;
-
-		// convert integer values to class labels
-		if (value == 1)
-			label = "hire";
-		else
-			label = "no";
-
-		return label;
+		return schema.decodeClass(value);
 	}
 
 }
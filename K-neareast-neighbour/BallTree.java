@@ -0,0 +1,135 @@
+package First;
+
+// Ball tree index for exact k nearest neighbor search under any distance
+// metric that obeys the triangle inequality (squared euclidean prunes on its
+// root). Each node keeps the centroid of its points and the radius of the
+// ball around it, which prunes better than axis aligned splits once the
+// number of dimensions grows.
+
+public class BallTree extends SpatialTree {
+
+	/***************************************************************************************************/
+
+	// Ball tree node class
+	private class Node {
+		private int start; // first tree position covered
+		private int end; // one past last tree position covered
+		private double[] center; // centroid of points
+		private double radius; // distance from centroid to farthest point
+		private Node left; // left child, null if node is leaf
+		private Node right; // right child, null if node is leaf
+
+		// Constructor of node
+		private Node(int start, int end) {
+			this.start = start;
+			this.end = end;
+		}
+	}
+
+	/***************************************************************************************************/
+
+	// relative rounding error allowed on the distance bound of a ball, whose
+	// centroid is inexact, so a ball holding a point tied with the worst
+	// neighbor, which may win on id, is not pruned
+	private static final double PRUNE_SLACK = 1e-9;
+
+	/***************************************************************************************************/
+
+	private Node root; // root of tree
+
+	/***************************************************************************************************/
+
+	// Constructor of tree, builds the tree over given row-major points
+	public BallTree(double[] data, int numberPoints, int numberDimensions, DistanceMetric metric) {
+		super(data, numberPoints, numberDimensions, metric);
+		root = numberPoints > 0 ? build(0, numberPoints) : null;
+	}
+
+	/***************************************************************************************************/
+
+	// Method builds subtree over given range of ids
+	private Node build(int start, int end) {
+		Node node = new Node(start, end);
+
+		// find centroid of points
+		node.center = new double[numberDimensions];
+		for (int i = start; i < end; i++)
+			for (int j = 0; j < numberDimensions; j++)
+				node.center[j] += value(ids[i], j);
+		for (int j = 0; j < numberDimensions; j++)
+			node.center[j] /= end - start;
+
+		// find radius of ball
+		node.radius = 0;
+		for (int i = start; i < end; i++) {
+			double rank = metric.rank(node.center, data, ids[i] * numberDimensions, numberDimensions,
+					Double.POSITIVE_INFINITY);
+			node.radius = Math.max(node.radius, metric.metric(rank));
+		}
+
+		// small range or all points equal is a leaf
+		if (end - start <= LEAF_SIZE)
+			return node;
+
+		int dimension = widestDimension(start, end);
+		if (dimension < 0)
+			return node;
+
+		// split at median of widest dimension
+		int middle = (start + end) >>> 1;
+		selectMedian(start, end, middle, dimension);
+
+		node.left = build(start, middle);
+		node.right = build(middle, end);
+
+		return node;
+	}
+
+	/***************************************************************************************************/
+
+	// Method finds k nearest points to query
+	public int search(double[] query, int k, double[] distance, int[] id) {
+		NeighborHeap heap = new NeighborHeap(Math.min(k, numberPoints));
+
+		if (root != null)
+			search(root, query, distance(query, root.center), heap);
+
+		return drain(heap, distance, id);
+	}
+
+	/***************************************************************************************************/
+
+	// Method searches subtree whose center is at given distance from query,
+	// nearer child first
+	private void search(Node node, double[] query, double centerDistance, NeighborHeap heap) {
+		// no point of the ball can beat current worst neighbor, heap holds
+		// ranking keys
+		double bound = centerDistance - node.radius;
+		if (bound > metric.metric(heap.worst()) + PRUNE_SLACK * (centerDistance + node.radius))
+			return;
+
+		if (node.left == null) {
+			scanLeaf(query, node.start, node.end, heap);
+			return;
+		}
+
+		double leftDistance = distance(query, node.left.center);
+		double rightDistance = distance(query, node.right.center);
+
+		if (leftDistance <= rightDistance) {
+			search(node.left, query, leftDistance, heap);
+			search(node.right, query, rightDistance, heap);
+		} else {
+			search(node.right, query, rightDistance, heap);
+			search(node.left, query, leftDistance, heap);
+		}
+	}
+
+	/***************************************************************************************************/
+
+	// Method finds metric distance between query and a center
+	private double distance(double[] u, double[] center) {
+		return metric.metric(metric.rank(u, center, 0, numberDimensions, Double.POSITIVE_INFINITY));
+	}
+
+}
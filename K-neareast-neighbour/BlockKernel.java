@@ -0,0 +1,17 @@
+package First;
+
+// Kernel finding squared euclidean distances from one query to a block of
+// training records at once, reading the records column by column so that
+// neighbouring records sit in neighbouring memory for each attribute.
+// Implementations add the terms of a record in attribute order, so every
+// kernel gives the same distances as DistanceKernel.squaredDistance.
+
+public interface BlockKernel {
+
+	// Method writes squared distances from query to records start .. end - 1
+	// into distance[start .. end - 1]. columns is column-major: attribute j
+	// of record i is at j * numberRecords + i
+	public void squaredDistances(double[] query, double[] columns, int numberRecords, int numberAttributes,
+			int start, int end, double[] distance);
+
+}
@@ -0,0 +1,40 @@
+package First;
+
+// Chebyshev distance, the largest absolute difference of any attribute.
+
+public final class ChebyshevMetric implements DistanceMetric {
+
+	/***************************************************************************************************/
+
+	// Method finds largest absolute difference, stops at the first one above
+	// bound
+	public double rank(double[] u, double[] data, int offset, int n, double bound) {
+		double distance = 0;
+
+		for (int j = 0; j < n; j++) {
+			double diff = Math.abs(u[j] - data[offset + j]);
+			if (diff > distance) {
+				distance = diff;
+				if (distance > bound)
+					return distance;
+			}
+		}
+
+		return distance;
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns largest difference as it is
+	public double distance(double rank) {
+		return rank;
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns distance to splitting plane
+	public double planeRank(int dimension, double diff) {
+		return Math.abs(diff);
+	}
+
+}
@@ -0,0 +1,97 @@
+package First;
+
+// Distance kernel shared by the nearest neighbor scan and the spatial
+// indexes. Neighbors are ranked on squared euclidean distance, which orders
+// records like the distance itself, so the square root is only taken for
+// the k neighbors that reach the weighted vote. The bounded form gives up on
+// a record as soon as its partial sum exceeds the current k-th best: terms
+// are never negative, so the full sum could not get back under the bound.
+// blockKernel hands out the kernels that find the distances of a whole block
+// of records at once from a column-major copy of the records.
+
+public final class DistanceKernel {
+
+	/***************************************************************************************************/
+
+	// number of terms added between checks against the bound
+	private static final int BLOCK = 4;
+
+	/***************************************************************************************************/
+
+	private DistanceKernel() {
+	}
+
+	/***************************************************************************************************/
+
+	// Method finds squared euclidean distance between u and the stored record
+	// of n attributes at given offset
+	public static double squaredDistance(double[] u, double[] data, int offset, int n) {
+		double distance = 0;
+
+		for (int j = 0; j < n; j++) {
+			double diff = u[j] - data[offset + j];
+			distance = distance + diff * diff;
+		}
+
+		return distance;
+	}
+
+	/***************************************************************************************************/
+
+	// Method finds squared euclidean distance like above but stops once the
+	// partial sum exceeds bound, returns a value greater than bound in that
+	// case. A record at exactly bound is finished, it can still win on id
+	public static double squaredDistance(double[] u, double[] data, int offset, int n, double bound) {
+		double distance = 0;
+		int j = 0;
+
+		// blocks of four terms, added in order and checked after each
+		for (; j + BLOCK <= n; j += BLOCK) {
+			double diff0 = u[j] - data[offset + j];
+			double diff1 = u[j + 1] - data[offset + j + 1];
+			double diff2 = u[j + 2] - data[offset + j + 2];
+			double diff3 = u[j + 3] - data[offset + j + 3];
+			distance = distance + diff0 * diff0;
+			distance = distance + diff1 * diff1;
+			distance = distance + diff2 * diff2;
+			distance = distance + diff3 * diff3;
+			if (distance > bound)
+				return distance;
+		}
+
+		// remaining terms
+		for (; j < n; j++) {
+			double diff = u[j] - data[offset + j];
+			distance = distance + diff * diff;
+		}
+
+		return distance;
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns block kernel for given mode: vector uses the vector API
+	// if the jdk.incubator.vector module is present (java --add-modules
+	// jdk.incubator.vector), otherwise and for any other mode the scalar
+	// block kernel is used
+	public static BlockKernel blockKernel(String mode) {
+		if (mode.equals("vector") && isVectorAvailable()) {
+			// loaded by name so that this class links without the module
+			try {
+				return (BlockKernel) Class.forName("First.VectorBlockKernel").getDeclaredConstructor().newInstance();
+			} catch (ReflectiveOperationException | LinkageError e) {
+				// fall back to scalar kernel
+			}
+		}
+
+		return new ScalarBlockKernel();
+	}
+
+	/***************************************************************************************************/
+
+	// Method decides whether the vector API module is present
+	public static boolean isVectorAvailable() {
+		return ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+	}
+
+}
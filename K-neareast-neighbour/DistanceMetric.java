@@ -0,0 +1,70 @@
+package First;
+
+// Distance between records used by the nearest neighbor searches. Neighbors
+// are ranked on a key that orders records like the distance (the squared
+// distance for euclidean, so no square root is taken per record) and the
+// key is turned into a distance only for the neighbors that vote. Every
+// metric can give up on a record once its partial key exceeds a bound, and
+// tells the spatial indexes how far away the points behind a splitting
+// plane are at least. Each metric is its own final class, so a scan over
+// records of one classifier calls a single implementation the JIT can
+// inline.
+//
+// name: euclidean - square root of sum of squared differences
+//       squared   - sum of squared differences
+//       manhattan - sum of absolute differences
+//       chebyshev - largest absolute difference
+//       hamming   - number of attributes that differ
+//       gower     - mean of absolute differences of numeric attributes
+//                   (scaled to [0, 1] by the schema) and mismatches of
+//                   categorical attributes
+//       mixed     - euclidean over numeric attributes plus 1 for every
+//                   categorical attribute that differs, under the root
+
+public interface DistanceMetric {
+
+	// Method finds ranking key between u and the record of n attributes at
+	// given offset of a row-major array. May stop once the partial key
+	// exceeds bound and return a value greater than bound
+	public double rank(double[] u, double[] data, int offset, int n, double bound);
+
+	// Method converts ranking key to distance
+	public double distance(double rank);
+
+	// Method returns smallest ranking key of a point whose attribute of
+	// given dimension differs from the query by diff, for KD-tree pruning
+	public double planeRank(int dimension, double diff);
+
+	// Method converts ranking key to a distance obeying the triangle
+	// inequality, for ball tree pruning
+	public default double metric(double rank) {
+		return distance(rank);
+	}
+
+	// Method decides whether ranking key is the squared euclidean distance,
+	// which the block kernels compute
+	public default boolean isSquaredEuclidean() {
+		return false;
+	}
+
+	// Method returns metric of given name, categorical tells which attributes
+	// are categorical (gower, mixed). Unknown names give euclidean
+	public static DistanceMetric forName(String name, boolean[] categorical) {
+		if (name.equals("squared"))
+			return new SquaredEuclideanMetric();
+		if (name.equals("manhattan"))
+			return new ManhattanMetric();
+		if (name.equals("chebyshev"))
+			return new ChebyshevMetric();
+		if (name.equals("hamming"))
+			return new HammingMetric();
+		if (name.equals("gower"))
+			return new GowerMetric(categorical);
+		if (name.equals("mixed"))
+			return new MixedMetric(categorical);
+
+		// in case of mis-input
+		return new EuclideanMetric();
+	}
+
+}
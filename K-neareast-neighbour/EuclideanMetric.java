@@ -0,0 +1,35 @@
+package First;
+
+// Euclidean distance, ranked on the squared distance.
+
+public final class EuclideanMetric implements DistanceMetric {
+
+	/***************************************************************************************************/
+
+	// Method finds squared distance, abandoned once above bound
+	public double rank(double[] u, double[] data, int offset, int n, double bound) {
+		return DistanceKernel.squaredDistance(u, data, offset, n, bound);
+	}
+
+	/***************************************************************************************************/
+
+	// Method takes root of squared distance
+	public double distance(double rank) {
+		return Math.sqrt(rank);
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns squared distance to splitting plane
+	public double planeRank(int dimension, double diff) {
+		return diff * diff;
+	}
+
+	/***************************************************************************************************/
+
+	// Method decides whether ranking key is the squared euclidean distance
+	public boolean isSquaredEuclidean() {
+		return true;
+	}
+
+}
@@ -0,0 +1,62 @@
+package First;
+
+// Gower distance: numeric attributes, already scaled to [0, 1] by the
+// schema, add their absolute difference and categorical attributes add 1 if
+// they differ; the distance is the mean over all attributes and the sum is
+// the ranking key.
+
+public final class GowerMetric implements DistanceMetric {
+
+	/***************************************************************************************************/
+
+	private boolean[] categorical; // categorical attributes, 0 based
+	private int numberAttributes; // number of attributes averaged over
+
+	/***************************************************************************************************/
+
+	// Constructor of metric, categorical tells which attributes are
+	// categorical
+	public GowerMetric(boolean[] categorical) {
+		this.categorical = categorical.clone();
+		this.numberAttributes = Math.max(1, categorical.length);
+	}
+
+	/***************************************************************************************************/
+
+	// Method finds sum of per attribute distances, checked against bound
+	// after each
+	public double rank(double[] u, double[] data, int offset, int n, double bound) {
+		double distance = 0;
+
+		for (int j = 0; j < n; j++) {
+			if (categorical[j]) {
+				if (u[j] != data[offset + j])
+					distance += 1.0;
+			} else
+				distance = distance + Math.abs(u[j] - data[offset + j]);
+
+			if (distance > bound)
+				return distance;
+		}
+
+		return distance;
+	}
+
+	/***************************************************************************************************/
+
+	// Method averages sum over attributes
+	public double distance(double rank) {
+		return rank / numberAttributes;
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns sum of points behind a splitting plane at least
+	public double planeRank(int dimension, double diff) {
+		if (categorical[dimension])
+			return diff != 0 ? 1 : 0;
+
+		return Math.abs(diff);
+	}
+
+}
@@ -0,0 +1,39 @@
+package First;
+
+// Hamming distance, the number of attributes whose values differ. Meant for
+// categorical attributes, a numeric attribute counts only if not equal.
+
+public final class HammingMetric implements DistanceMetric {
+
+	/***************************************************************************************************/
+
+	// Method counts differing attributes, stops once count is above bound
+	public double rank(double[] u, double[] data, int offset, int n, double bound) {
+		double distance = 0;
+
+		for (int j = 0; j < n; j++)
+			if (u[j] != data[offset + j]) {
+				distance += 1.0;
+				if (distance > bound)
+					return distance;
+			}
+
+		return distance;
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns count as it is
+	public double distance(double rank) {
+		return rank;
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns 1 for points on the far side of a splitting plane the
+	// query is not on, their value cannot equal the query's
+	public double planeRank(int dimension, double diff) {
+		return diff != 0 ? 1 : 0;
+	}
+
+}
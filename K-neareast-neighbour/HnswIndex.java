@@ -0,0 +1,443 @@
+package First;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// Approximate k nearest neighbor index, a hierarchical navigable small world
+// graph (Malkov and Yashunin). Every point is linked to near points on
+// layer 0, and with a probability falling exponentially per layer also on
+// the layers above, which hold ever fewer points and ever longer links. A
+// search walks greedily down from the entry point on the top layer and then
+// runs a best first search on layer 0 that keeps the efSearch nearest
+// points seen, so efSearch trades speed for recall. Points are inserted one
+// at a time and linked to the nearest of efConstruction candidates, pruned
+// so that the links of a point go in different directions. Candidates are
+// ranked on the ranking key of the distance metric, and a point is
+// abandoned part way once it cannot get among the nearest kept.
+
+public class HnswIndex implements NeighborIndex {
+
+	/***************************************************************************************************/
+
+	// Per thread search state: visited marks and the queue of points to expand
+	private static class Scratch {
+		private int[] marks; // epoch in which point was last visited
+		private int epoch; // number of current search
+		private double[] queueKey; // ranking keys of queued points, min-heap
+		private int[] queueId; // queued points in heap order
+		private int queueSize; // number of queued points
+
+		// Constructor of state for given number of points
+		private Scratch(int numberPoints) {
+			marks = new int[numberPoints];
+			epoch = 0;
+			queueKey = new double[64];
+			queueId = new int[64];
+			queueSize = 0;
+		}
+
+		// start a new search, nothing visited and nothing queued
+		private void reset() {
+			epoch++;
+			if (epoch == 0) {
+				// marks wrapped around, clear them once
+				Arrays.fill(marks, 0);
+				epoch = 1;
+			}
+			queueSize = 0;
+		}
+
+		// mark point visited, returns false if it already was
+		private boolean visit(int point) {
+			if (marks[point] == epoch)
+				return false;
+			marks[point] = epoch;
+			return true;
+		}
+
+		// queue point to expand
+		private void push(double key, int point) {
+			if (queueSize == queueKey.length) {
+				queueKey = Arrays.copyOf(queueKey, 2 * queueSize);
+				queueId = Arrays.copyOf(queueId, 2 * queueSize);
+			}
+
+			// sift up
+			int child = queueSize++;
+			while (child > 0) {
+				int parent = (child - 1) / 2;
+				if (queueKey[parent] <= key)
+					break;
+				queueKey[child] = queueKey[parent];
+				queueId[child] = queueId[parent];
+				child = parent;
+			}
+			queueKey[child] = key;
+			queueId[child] = point;
+		}
+
+		// remove nearest queued point, its key is queueKey[0] before the call
+		private int pop() {
+			int point = queueId[0];
+			double key = queueKey[--queueSize];
+			int last = queueId[queueSize];
+
+			// sift last point down from the root
+			int parent = 0;
+			while (true) {
+				int child = 2 * parent + 1;
+				if (child >= queueSize)
+					break;
+				if (child + 1 < queueSize && queueKey[child + 1] < queueKey[child])
+					child++;
+				if (key <= queueKey[child])
+					break;
+				queueKey[parent] = queueKey[child];
+				queueId[parent] = queueId[child];
+				parent = child;
+			}
+			queueKey[parent] = key;
+			queueId[parent] = last;
+
+			return point;
+		}
+	}
+
+	/***************************************************************************************************/
+
+	private double[] points; // indexed points, row-major
+	private int numberPoints; // number of points
+	private int numberDimensions; // number of coordinates per point
+	private DistanceMetric metric; // distance between points
+	private int maxLinks; // links per point on upper layers
+	private int maxLinks0; // links per point on layer 0
+	private int efConstruction; // candidates kept while inserting a point
+	private int efSearch; // candidates kept while searching
+	private int[] links0; // layer 0 links, per point a count and maxLinks0 slots
+	private int[][] upperLinks; // upper layer links of each point, null if none
+	private int entryPoint; // point on top layer where searches start
+	private int topLevel; // highest layer of graph
+	private ThreadLocal<Scratch> scratch; // search state of each thread
+	private double[] row; // copy of a point while building
+	private double[] origin; // copy of a point whose links are pruned
+	private double[] linkKeys; // ranking keys of links being pruned
+	private int[] linkIds; // links being pruned
+	private int[] linkSelected; // links kept after pruning
+
+	/***************************************************************************************************/
+
+	// Constructor of graph over given row-major points, each linked to
+	// maxLinks points per layer (twice as many on layer 0). The points are
+	// not copied and must not change
+	public HnswIndex(double[] data, int numberPoints, int numberDimensions, DistanceMetric metric, int maxLinks,
+			int efConstruction, long seed) {
+		this.points = data;
+		this.numberPoints = numberPoints;
+		this.numberDimensions = numberDimensions;
+		this.metric = metric;
+		this.maxLinks = maxLinks;
+		this.maxLinks0 = 2 * maxLinks;
+		this.efConstruction = Math.max(efConstruction, maxLinks);
+		this.efSearch = efConstruction;
+
+		final int size = numberPoints;
+		scratch = new ThreadLocal<Scratch>() {
+			protected Scratch initialValue() {
+				return new Scratch(size);
+			}
+		};
+
+		build(seed);
+	}
+
+	/***************************************************************************************************/
+
+	// Method to reset number of candidates kept while searching, at least k
+	// are kept. Not to be called while searches run
+	public void setEfSearch(int efSearch) {
+		this.efSearch = efSearch;
+	}
+
+	/***************************************************************************************************/
+
+	// Method inserts all points in order, layers drawn at random
+	private void build(long seed) {
+		SplittableRandom random = new SplittableRandom(seed);
+		double levelScale = 1 / Math.log(maxLinks);
+
+		links0 = new int[numberPoints * (maxLinks0 + 1)];
+		upperLinks = new int[numberPoints][];
+		entryPoint = -1;
+		topLevel = -1;
+		row = new double[numberDimensions];
+		origin = new double[numberDimensions];
+		linkKeys = new double[maxLinks0 + 1];
+		linkIds = new int[maxLinks0 + 1];
+		linkSelected = new int[maxLinks0];
+
+		double[] query = new double[numberDimensions];
+		for (int point = 0; point < numberPoints; point++) {
+			int level = (int) (-Math.log(1 - random.nextDouble()) * levelScale);
+			if (level > 0)
+				upperLinks[point] = new int[level * (maxLinks + 1)];
+
+			System.arraycopy(points, point * numberDimensions, query, 0, numberDimensions);
+			insert(point, level, query);
+		}
+
+		// buffers are only needed while building
+		row = null;
+		origin = null;
+		linkKeys = null;
+		linkIds = null;
+		linkSelected = null;
+	}
+
+	/***************************************************************************************************/
+
+	// Method links point of given level into the graph, query holds its
+	// coordinates
+	private void insert(int point, int level, double[] query) {
+		if (entryPoint < 0) {
+			entryPoint = point;
+			topLevel = level;
+			return;
+		}
+
+		// greedy descent to the layer of the point
+		int entry = entryPoint;
+		for (int l = topLevel; l > level; l--)
+			entry = closest(query, entry, l);
+
+		int[] entries = { entry };
+		double[] entryKeys = { rank(query, entry, Double.POSITIVE_INFINITY) };
+		int numberEntries = 1;
+
+		int[] ids = new int[efConstruction];
+		double[] keys = new double[efConstruction];
+		int[] selected = new int[maxLinks];
+
+		// link point on each of its layers, candidates of a layer are the
+		// entries of the one below
+		for (int l = Math.min(level, topLevel); l >= 0; l--) {
+			NeighborHeap found = searchLayer(query, entries, entryKeys, numberEntries, efConstruction, l);
+			int count = found.drain(keys, ids);
+
+			int numberSelected = selectNeighbors(keys, ids, count, maxLinks, selected);
+			int[] links = links(point, l);
+			int base = base(point, l);
+			links[base] = numberSelected;
+			System.arraycopy(selected, 0, links, base + 1, numberSelected);
+
+			for (int i = 0; i < numberSelected; i++)
+				addLink(selected[i], point, l);
+
+			entries = ids.clone();
+			entryKeys = keys.clone();
+			numberEntries = count;
+		}
+
+		if (level > topLevel) {
+			entryPoint = point;
+			topLevel = level;
+		}
+	}
+
+	/***************************************************************************************************/
+
+	// Method picks at most max neighbors among candidates given in ascending
+	// order: a candidate is kept only if it is nearer to the point than to
+	// every neighbor already kept, so that neighbors cover all directions.
+	// Returns number of neighbors written to selected
+	private int selectNeighbors(double[] keys, int[] ids, int count, int max, int[] selected) {
+		int numberSelected = 0;
+
+		for (int i = 0; i < count && numberSelected < max; i++) {
+			int candidate = ids[i];
+			System.arraycopy(points, candidate * numberDimensions, row, 0, numberDimensions);
+
+			boolean keep = true;
+			for (int j = 0; j < numberSelected && keep; j++)
+				if (rank(row, selected[j], keys[i]) < keys[i])
+					keep = false;
+
+			if (keep)
+				selected[numberSelected++] = candidate;
+		}
+
+		return numberSelected;
+	}
+
+	/***************************************************************************************************/
+
+	// Method links neighbor back to point on given layer, a neighbor with
+	// all slots taken keeps the best of its links and the new one
+	private void addLink(int neighbor, int point, int level) {
+		int[] links = links(neighbor, level);
+		int base = base(neighbor, level);
+		int max = level == 0 ? maxLinks0 : maxLinks;
+		int count = links[base];
+
+		if (count < max) {
+			links[base + 1 + count] = point;
+			links[base] = count + 1;
+			return;
+		}
+
+		// rank current links and new one from the neighbor
+		System.arraycopy(points, neighbor * numberDimensions, origin, 0, numberDimensions);
+		for (int i = 0; i < count; i++) {
+			linkIds[i] = links[base + 1 + i];
+			linkKeys[i] = rank(origin, linkIds[i], Double.POSITIVE_INFINITY);
+		}
+		linkIds[count] = point;
+		linkKeys[count] = rank(origin, point, Double.POSITIVE_INFINITY);
+
+		sort(linkKeys, linkIds, count + 1);
+
+		int numberSelected = selectNeighbors(linkKeys, linkIds, count + 1, max, linkSelected);
+		links[base] = numberSelected;
+		System.arraycopy(linkSelected, 0, links, base + 1, numberSelected);
+	}
+
+	/***************************************************************************************************/
+
+	// Method finds the k nearest points to query, approximately, and writes
+	// them like the exact indexes
+	public int search(double[] query, int k, double[] distance, int[] id) {
+		int count = Math.max(0, Math.min(k, numberPoints));
+		if (count == 0)
+			return 0;
+
+		// greedy descent to layer 0
+		int entry = entryPoint;
+		for (int l = topLevel; l > 0; l--)
+			entry = closest(query, entry, l);
+
+		int ef = Math.max(efSearch, count);
+		int[] entries = { entry };
+		double[] entryKeys = { rank(query, entry, Double.POSITIVE_INFINITY) };
+		NeighborHeap found = searchLayer(query, entries, entryKeys, 1, ef, 0);
+
+		double[] keys = new double[ef];
+		int[] ids = new int[ef];
+		count = Math.min(count, found.drain(keys, ids));
+
+		for (int i = 0; i < count; i++) {
+			distance[i] = metric.distance(keys[i]);
+			id[i] = ids[i];
+		}
+
+		return count;
+	}
+
+	/***************************************************************************************************/
+
+	// Method follows links on given layer to nearer points until none is
+	// nearer, returns the point reached
+	private int closest(double[] query, int entry, int level) {
+		int current = entry;
+		double currentKey = rank(query, current, Double.POSITIVE_INFINITY);
+
+		boolean moved = true;
+		while (moved) {
+			moved = false;
+			int[] links = links(current, level);
+			int base = base(current, level);
+
+			for (int i = 1; i <= links[base]; i++) {
+				int point = links[base + i];
+				double key = rank(query, point, currentKey);
+				if (key < currentKey) {
+					current = point;
+					currentKey = key;
+					moved = true;
+				}
+			}
+		}
+
+		return current;
+	}
+
+	/***************************************************************************************************/
+
+	// Method runs best first search on given layer from the entries and
+	// returns heap of the ef nearest points found. Stops once the nearest
+	// point left to expand is farther than every point kept
+	private NeighborHeap searchLayer(double[] query, int[] entries, double[] entryKeys, int numberEntries, int ef,
+			int level) {
+		Scratch state = scratch.get();
+		state.reset();
+
+		NeighborHeap found = new NeighborHeap(ef);
+		for (int i = 0; i < numberEntries; i++) {
+			state.visit(entries[i]);
+			found.offer(entryKeys[i], entries[i]);
+			state.push(entryKeys[i], entries[i]);
+		}
+
+		while (state.queueSize > 0) {
+			if (state.queueKey[0] > found.worst())
+				break;
+
+			int current = state.pop();
+			int[] links = links(current, level);
+			int base = base(current, level);
+
+			for (int i = 1; i <= links[base]; i++) {
+				int point = links[base + i];
+				if (!state.visit(point))
+					continue;
+
+				double worst = found.worst();
+				double key = rank(query, point, worst);
+				if (key <= worst && found.offer(key, point))
+					state.push(key, point);
+			}
+		}
+
+		return found;
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns array holding links of point on given layer
+	private int[] links(int point, int level) {
+		return level == 0 ? links0 : upperLinks[point];
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns position of link count of point on given layer, the
+	// links follow it
+	private int base(int point, int level) {
+		return level == 0 ? point * (maxLinks0 + 1) : (level - 1) * (maxLinks + 1);
+	}
+
+	/***************************************************************************************************/
+
+	// Method finds ranking key between query and point, may stop once it
+	// exceeds bound
+	private double rank(double[] query, int point, double bound) {
+		return metric.rank(query, points, point * numberDimensions, numberDimensions, bound);
+	}
+
+	/***************************************************************************************************/
+
+	// Method sorts few candidates in ascending order of key, then id
+	private static void sort(double[] keys, int[] ids, int count) {
+		for (int i = 1; i < count; i++) {
+			double key = keys[i];
+			int id = ids[i];
+			int j = i - 1;
+			while (j >= 0 && (keys[j] > key || (keys[j] == key && ids[j] > id))) {
+				keys[j + 1] = keys[j];
+				ids[j + 1] = ids[j];
+				j--;
+			}
+			keys[j + 1] = key;
+			ids[j + 1] = id;
+		}
+	}
+
+}
@@ -0,0 +1,101 @@
+package First;
+
+// KD-tree index for exact k nearest neighbor search under any distance
+// metric. Each internal node splits its points at the median of the
+// dimension with the largest spread. Works best for low dimensional data
+// such as the 3-5 attribute datasets, see BallTree for higher dimensions.
+
+public class KDTree extends SpatialTree {
+
+	/***************************************************************************************************/
+
+	// KD-tree node class
+	private class Node {
+		private int start; // first tree position covered
+		private int end; // one past last tree position covered
+		private int splitDimension; // split dimension, -1 if node is leaf
+		private double splitValue; // split value if node is internal
+		private Node left; // points with value <= split value
+		private Node right; // points with value >= split value
+
+		// Constructor of node
+		private Node(int start, int end) {
+			this.start = start;
+			this.end = end;
+			this.splitDimension = -1;
+		}
+	}
+
+	/***************************************************************************************************/
+
+	private Node root; // root of tree
+
+	/***************************************************************************************************/
+
+	// Constructor of tree, builds the tree over given row-major points
+	public KDTree(double[] data, int numberPoints, int numberDimensions, DistanceMetric metric) {
+		super(data, numberPoints, numberDimensions, metric);
+		root = build(0, numberPoints);
+	}
+
+	/***************************************************************************************************/
+
+	// Method builds subtree over given range of ids
+	private Node build(int start, int end) {
+		Node node = new Node(start, end);
+
+		// small range is a leaf
+		if (end - start <= LEAF_SIZE)
+			return node;
+
+		// all points equal, cannot split
+		int dimension = widestDimension(start, end);
+		if (dimension < 0)
+			return node;
+
+		// split at median of widest dimension
+		int middle = (start + end) >>> 1;
+		selectMedian(start, end, middle, dimension);
+
+		node.splitDimension = dimension;
+		node.splitValue = value(ids[middle], dimension);
+		node.left = build(start, middle);
+		node.right = build(middle, end);
+
+		return node;
+	}
+
+	/***************************************************************************************************/
+
+	// Method finds k nearest points to query
+	public int search(double[] query, int k, double[] distance, int[] id) {
+		NeighborHeap heap = new NeighborHeap(Math.min(k, numberPoints));
+
+		if (root != null)
+			search(root, query, heap);
+
+		return drain(heap, distance, id);
+	}
+
+	/***************************************************************************************************/
+
+	// Method searches subtree, nearer side first
+	private void search(Node node, double[] query, NeighborHeap heap) {
+		if (node.splitDimension < 0) {
+			scanLeaf(query, node.start, node.end, heap);
+			return;
+		}
+
+		double diff = query[node.splitDimension] - node.splitValue;
+		Node near = diff <= 0 ? node.left : node.right;
+		Node far = diff <= 0 ? node.right : node.left;
+
+		search(near, query, heap);
+
+		// far side can only help if the splitting plane is within reach,
+		// heap holds ranking keys
+		if (metric.planeRank(node.splitDimension, diff) <= heap.worst())
+			search(far, query, heap);
+	}
+
+}
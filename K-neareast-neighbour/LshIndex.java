@@ -0,0 +1,310 @@
+package First;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Approximate k nearest neighbor index by locality sensitive hashing with
+// random projections (p-stable LSH). A table hashes every point on a few
+// random gaussian directions, each projection cut into buckets of equal
+// width, so points near each other in euclidean distance tend to share the
+// signature of a table. A query collects the points sharing its signature
+// in any table and ranks only those candidates under the distance metric,
+// with early abandon; if they are fewer than k every point is scanned. The
+// bucket width comes from the nearest neighbor distances of a sample of
+// points. Each table is an array of (signature, point) pairs sorted once,
+// so a bucket is a contiguous range found by binary search, and the tables
+// are built concurrently.
+
+public class LshIndex implements NeighborIndex {
+
+	/***************************************************************************************************/
+
+	// fork/join task hashing a range of tables
+	@SuppressWarnings("serial")
+	private class TableTask extends RecursiveAction {
+		private int start; // first table of range
+		private int end; // one past last table of range
+
+		// Constructor of task
+		private TableTask(int start, int end) {
+			this.start = start;
+			this.end = end;
+		}
+
+		// hash a single table directly, otherwise split range in halves
+		protected void compute() {
+			if (end - start == 1)
+				buildTable(start);
+			else {
+				int middle = (start + end) >>> 1;
+				invokeAll(new TableTask(start, middle), new TableTask(middle, end));
+			}
+		}
+	}
+
+	/***************************************************************************************************/
+
+	// Per thread visited marks, so a point in several buckets is ranked once
+	private static class Marks {
+		private int[] marks; // epoch in which point was last visited
+		private int epoch; // number of current search
+
+		// Constructor of marks for given number of points
+		private Marks(int numberPoints) {
+			marks = new int[numberPoints];
+			epoch = 0;
+		}
+
+		// start a new search, nothing visited
+		private void reset() {
+			epoch++;
+			if (epoch == 0) {
+				// marks wrapped around, clear them once
+				Arrays.fill(marks, 0);
+				epoch = 1;
+			}
+		}
+
+		// mark point visited, returns false if it already was
+		private boolean visit(int point) {
+			if (marks[point] == epoch)
+				return false;
+			marks[point] = epoch;
+			return true;
+		}
+	}
+
+	/***************************************************************************************************/
+
+	// number of sampled points whose nearest neighbor sets the bucket width
+	private static final int WIDTH_SAMPLES = 32;
+
+	// bucket width in mean nearest neighbor distances of the sample
+	private static final double WIDTH_SCALE = 4;
+
+	/***************************************************************************************************/
+
+	private double[] points; // indexed points, row-major
+	private int numberPoints; // number of points
+	private int numberDimensions; // number of coordinates per point
+	private DistanceMetric metric; // distance between points
+	private int numberTables; // number of hash tables
+	private int numberProjections; // projections per table signature
+	private double width; // bucket width on each projection
+	private double[][] directions; // per table, projections row-major
+	private double[][] offsets; // per table, bucket offset of each projection
+	private long[][] tables; // per table, sorted signature and point pairs
+	private ThreadLocal<Marks> visited; // visited marks of each thread
+
+	/***************************************************************************************************/
+
+	// Constructor of index over given row-major points with given number of
+	// tables and projections per table, tables are hashed on given number of
+	// threads. The points are not copied and must not change
+	public LshIndex(double[] data, int numberPoints, int numberDimensions, DistanceMetric metric, int numberTables,
+			int numberProjections, long seed, int parallelism) {
+		this.points = data;
+		this.numberPoints = numberPoints;
+		this.numberDimensions = numberDimensions;
+		this.metric = metric;
+		this.numberTables = numberTables;
+		this.numberProjections = numberProjections;
+
+		final int size = numberPoints;
+		visited = new ThreadLocal<Marks>() {
+			protected Marks initialValue() {
+				return new Marks(size);
+			}
+		};
+
+		// random parts drawn in order, so tables do not depend on threads
+		SplittableRandom random = new SplittableRandom(seed);
+		width = bucketWidth(random);
+		directions = new double[numberTables][numberProjections * numberDimensions];
+		offsets = new double[numberTables][numberProjections];
+		for (int t = 0; t < numberTables; t++) {
+			for (int p = 0; p < directions[t].length; p++)
+				directions[t][p] = gaussian(random);
+			for (int p = 0; p < numberProjections; p++)
+				offsets[t][p] = random.nextDouble() * width;
+		}
+
+		// hash tables, in parallel if more than one thread is configured
+		tables = new long[numberTables][];
+		if (numberPoints == 0 || numberTables == 0)
+			return;
+		if (parallelism <= 1) {
+			for (int t = 0; t < numberTables; t++)
+				buildTable(t);
+		} else {
+			ForkJoinPool pool = new ForkJoinPool(parallelism);
+			try {
+				pool.invoke(new TableTask(0, numberTables));
+			} finally {
+				pool.shutdown();
+			}
+		}
+	}
+
+	/***************************************************************************************************/
+
+	// Method finds bucket width from mean euclidean distance of sampled
+	// points to their nearest other point
+	private double bucketWidth(SplittableRandom random) {
+		int samples = Math.min(WIDTH_SAMPLES, numberPoints);
+		double sum = 0;
+		int counted = 0;
+
+		for (int s = 0; s < samples; s++) {
+			int sample = random.nextInt(numberPoints);
+			double[] query = Arrays.copyOfRange(points, sample * numberDimensions, (sample + 1) * numberDimensions);
+
+			double nearest = Double.POSITIVE_INFINITY;
+			for (int i = 0, offset = 0; i < numberPoints; i++, offset += numberDimensions) {
+				double d = DistanceKernel.squaredDistance(query, points, offset, numberDimensions, nearest);
+				if (i != sample && d > 0 && d < nearest)
+					nearest = d;
+			}
+
+			if (nearest < Double.POSITIVE_INFINITY) {
+				sum += Math.sqrt(nearest);
+				counted++;
+			}
+		}
+
+		// all points equal or too few, any width puts them in one bucket
+		if (counted == 0)
+			return 1;
+
+		return WIDTH_SCALE * sum / counted;
+	}
+
+	/***************************************************************************************************/
+
+	// Method hashes all points of a table and sorts them by signature
+	private void buildTable(int table) {
+		long[] entries = new long[numberPoints];
+
+		for (int i = 0; i < numberPoints; i++)
+			entries[i] = entry(signature(points, i * numberDimensions, table), i);
+
+		Arrays.sort(entries);
+		tables[table] = entries;
+	}
+
+	/***************************************************************************************************/
+
+	// Method finds the k nearest points to query among the points sharing a
+	// bucket with it, or among all points if these are fewer than k, and
+	// writes them like the exact indexes
+	public int search(double[] query, int k, double[] distance, int[] id) {
+		int count = Math.max(0, Math.min(k, numberPoints));
+		if (count == 0)
+			return 0;
+
+		NeighborHeap heap = new NeighborHeap(count);
+		Marks marks = visited.get();
+		marks.reset();
+
+		// candidates of every table
+		for (int t = 0; t < numberTables; t++) {
+			long[] entries = tables[t];
+			int signature = signature(query, 0, t);
+
+			int i = lowerBound(entries, entry(signature, 0));
+			long last = entry(signature, -1);
+			for (; i < entries.length && entries[i] <= last; i++)
+				offer(query, (int) entries[i], heap, marks);
+		}
+
+		// too few candidates, scan the points not ranked yet
+		if (!heap.isFull())
+			for (int i = 0; i < numberPoints; i++)
+				offer(query, i, heap, marks);
+
+		count = heap.drain(distance, id);
+		for (int i = 0; i < count; i++)
+			distance[i] = metric.distance(distance[i]);
+
+		return count;
+	}
+
+	/***************************************************************************************************/
+
+	// Method ranks point not visited yet and offers it to heap, abandoned
+	// part way once it cannot beat the worst kept
+	private void offer(double[] query, int point, NeighborHeap heap, Marks marks) {
+		if (!marks.visit(point))
+			return;
+
+		double worst = heap.worst();
+		double rank = metric.rank(query, points, point * numberDimensions, numberDimensions, worst);
+		if (rank <= worst)
+			heap.offer(rank, point);
+	}
+
+	/***************************************************************************************************/
+
+	// Method finds signature of the record at given offset in a table: the
+	// bucket of every projection, mixed into an int. Different signatures
+	// mixed to the same int only add candidates
+	private int signature(double[] data, int offset, int table) {
+		double[] direction = directions[table];
+		int signature = 1;
+
+		for (int p = 0, base = 0; p < numberProjections; p++, base += numberDimensions) {
+			double projection = offsets[table][p];
+			for (int j = 0; j < numberDimensions; j++)
+				projection += direction[base + j] * data[offset + j];
+
+			int bucket = (int) Math.floor(projection / width);
+			signature = 31 * signature + bucket;
+		}
+
+		// spread bits so nearby buckets are not nearby signatures
+		signature ^= signature >>> 16;
+		signature *= 0x45d9f3b;
+		signature ^= signature >>> 16;
+
+		return signature;
+	}
+
+	/***************************************************************************************************/
+
+	// Method packs signature and point into a table entry that sorts by
+	// signature, then point
+	private static long entry(int signature, int point) {
+		return ((long) signature << 32) | (point & 0xffffffffL);
+	}
+
+	/***************************************************************************************************/
+
+	// Method finds position of first entry not below given one
+	private static int lowerBound(long[] entries, long entry) {
+		int low = 0;
+		int high = entries.length;
+
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (entries[middle] < entry)
+				low = middle + 1;
+			else
+				high = middle;
+		}
+
+		return low;
+	}
+
+	/***************************************************************************************************/
+
+	// Method draws standard normal value
+	private static double gaussian(SplittableRandom random) {
+		// Box-Muller transform
+		double u = 1 - random.nextDouble();
+		double v = random.nextDouble();
+		return Math.sqrt(-2 * Math.log(u)) * Math.cos(2 * Math.PI * v);
+	}
+
+}
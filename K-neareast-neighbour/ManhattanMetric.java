@@ -0,0 +1,44 @@
+package First;
+
+// Manhattan distance, the sum of absolute differences.
+
+public final class ManhattanMetric implements DistanceMetric {
+
+	/***************************************************************************************************/
+
+	// Method finds sum of absolute differences, checked against bound every
+	// four terms
+	public double rank(double[] u, double[] data, int offset, int n, double bound) {
+		double distance = 0;
+		int j = 0;
+
+		for (; j + 4 <= n; j += 4) {
+			distance = distance + Math.abs(u[j] - data[offset + j]);
+			distance = distance + Math.abs(u[j + 1] - data[offset + j + 1]);
+			distance = distance + Math.abs(u[j + 2] - data[offset + j + 2]);
+			distance = distance + Math.abs(u[j + 3] - data[offset + j + 3]);
+			if (distance > bound)
+				return distance;
+		}
+
+		for (; j < n; j++)
+			distance = distance + Math.abs(u[j] - data[offset + j]);
+
+		return distance;
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns sum as it is
+	public double distance(double rank) {
+		return rank;
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns distance to splitting plane
+	public double planeRank(int dimension, double diff) {
+		return Math.abs(diff);
+	}
+
+}
@@ -0,0 +1,61 @@
+package First;
+
+// Euclidean distance over numeric attributes where each categorical
+// attribute adds 1 under the root if it differs (matching coefficient), the
+// distance of the bank loan application. Ranked on the value under the
+// root.
+
+public final class MixedMetric implements DistanceMetric {
+
+	/***************************************************************************************************/
+
+	private boolean[] categorical; // categorical attributes, 0 based
+
+	/***************************************************************************************************/
+
+	// Constructor of metric, categorical tells which attributes are
+	// categorical
+	public MixedMetric(boolean[] categorical) {
+		this.categorical = categorical.clone();
+	}
+
+	/***************************************************************************************************/
+
+	// Method finds value under the root, checked against bound after each
+	// attribute
+	public double rank(double[] u, double[] data, int offset, int n, double bound) {
+		double distance = 0;
+
+		for (int j = 0; j < n; j++) {
+			if (categorical[j]) {
+				if (u[j] != data[offset + j])
+					distance += 1.0;
+			} else
+				distance = distance + (u[j] - data[offset + j]) * (u[j] - data[offset + j]);
+
+			if (distance > bound)
+				return distance;
+		}
+
+		return distance;
+	}
+
+	/***************************************************************************************************/
+
+	// Method takes root
+	public double distance(double rank) {
+		return Math.sqrt(rank);
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns value under the root of points behind a splitting plane
+	// at least
+	public double planeRank(int dimension, double diff) {
+		if (categorical[dimension])
+			return diff != 0 ? 1 : 0;
+
+		return diff * diff;
+	}
+
+}
@@ -2,31 +2,86 @@ package First;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 public class NearestNeighbor {
 
 	/***************************************************************************************************/
 
-	// training record class
-	private class Record {
-		private double[] attributes; // attributes of record
-		private int className; // class of record
+	// fork/join task classifying a range of a batch of records
+	@SuppressWarnings("serial")
+	private class ClassifyTask extends RecursiveAction {
+		private double[][] batch; // records to classify
+		private int[] classes; // classes found for records
+		private int start; // first record of range
+		private int end; // one past last record of range
+
+		// Constructor of task
+		private ClassifyTask(double[][] batch, int[] classes, int start, int end) {
+			this.batch = batch;
+			this.classes = classes;
+			this.start = start;
+			this.end = end;
+		}
 
-		// Constructor of record
-		private Record(double[] attributes, int className) {
-			this.attributes = attributes; // assign attributes
-			this.className = className; // assign class
+		// classify small range directly, otherwise split it in halves
+		protected void compute() {
+			if (end - start <= BATCH_GRAIN) {
+				for (int i = start; i < end; i++)
+					classes[i] = classify(batch[i]);
+			} else {
+				int middle = (start + end) >>> 1;
+				invokeAll(new ClassifyTask(batch, classes, start, middle),
+						new ClassifyTask(batch, classes, middle, end));
+			}
 		}
 	}
 
 	/***************************************************************************************************/
 
-	private ArrayList<Record> records; // list of training records
+	private TrainingStore records; // training records, row-major arrays
 	private int numberRecords; // numbers of training records
 	private int numberAttributes; // numbers of attributes
 	private int numberClasses; // number of classes
 	private int numberNeighbors; // number of nearest neighbors
 	private String majorityRule; // majority rule used
+	private DatasetSchema schema; // converts labels to numbers
+	private String selectionMode; // neighbor selection: auto, heap, quickselect
+	private String searchMode; // neighbor search: index, approximate, lsh, brute
+	private NeighborIndex index; // spatial index over training records
+	private HnswIndex graph; // graph of approximate mode, null otherwise
+	private int graphLinks; // links per record in graph
+	private int efConstruction; // candidates kept while building graph
+	private int efSearch; // candidates kept while searching graph
+	private LshIndex hashIndex; // hash tables of lsh mode, null otherwise
+	private int hashTables; // number of hash tables
+	private int hashProjections; // projections per hash table signature
+	private int parallelism; // number of threads classifying test records
+	private BlockKernel kernel; // block kernel of vector mode, null in scalar mode
+	private double[] columns; // column-major records while kernel is used, null otherwise
+	private String metricName; // distance metric: euclidean, squared, ...
+	private DistanceMetric metric; // distance metric for loaded records
+
+	// largest number of attributes for which a KD-tree is built, a ball
+	// tree is built above it
+	private static final int KD_TREE_MAX_ATTRIBUTES = 10;
+
+	// seed of the layers drawn for records of graph
+	private static final long GRAPH_SEED = 1;
+
+	// seed of the projections of hash tables
+	private static final long HASH_SEED = 1;
+
+	// number of test records below which a parallel task is not split
+	private static final int BATCH_GRAIN = 64;
+
+	// number of test records read, classified and written at a time when
+	// streaming
+	private static final int STREAM_BATCH = 4096;
+
+	// bytes buffered by the classified file writer when streaming
+	private static final int STREAM_BUFFER = 1 << 20;
 
 	/***************************************************************************************************/
 
@@ -38,13 +93,190 @@ public class NearestNeighbor {
 		numberClasses = 0;
 		numberNeighbors = 0; // nearest neighbors, majority rule
 		majorityRule = null;
+		schema = defaultSchema(); // application schema
+		selectionMode = "auto"; // pick heap or quickselect by k/n
+		searchMode = "index"; // search spatial index, no index yet
+		index = null;
+		graph = null; // approximate search graph, built on demand
+		graphLinks = 16;
+		efConstruction = 200;
+		efSearch = 50;
+		hashIndex = null; // lsh hash tables, built on demand
+		hashTables = 16;
+		hashProjections = 5;
+		parallelism = 1; // classify on calling thread
+		kernel = null; // scalar kernel, row by row with early abandon
+		columns = null;
+		metricName = "euclidean"; // euclidean distance
+		metric = new EuclideanMetric();
+	}
+
+	/***************************************************************************************************/
+
+	//Method to reset schema, e.g. one learned from a training file by
+	//DatasetSchema.learn. Records, metric and indexes are derived from the
+	//schema when loaded, so it cannot change afterwards
+	public void setSchema(DatasetSchema schema)
+	{
+		if (records != null)
+			throw new IllegalStateException("Error: schema must be set before training data is loaded.");
+
+		this.schema = schema;
+	}
+
+	/***************************************************************************************************/
+
+	// Method to reset neighbor selection mode: auto, heap, quickselect
+	public void setSelectionMode(String mode) {
+
+		if (mode.equals("heap") || mode.equals("quickselect"))
+			selectionMode = mode;
+		// in case of mis-input
+		else
+			selectionMode = "auto";
+	}
+
+	/***************************************************************************************************/
+
+	// Method to reset neighbor search mode: index, approximate (HNSW graph,
+	// see setGraphParameters), lsh (hash tables, see setHashParameters),
+	// brute (full scan, kept for benchmarking)
+	public void setSearchMode(String mode) {
+
+		if (mode.equals("brute"))
+			searchMode = "brute";
+		else if (mode.equals("approximate"))
+			searchMode = "approximate";
+		else if (mode.equals("lsh"))
+			searchMode = "lsh";
+		// in case of mis-input
+		else
+			searchMode = "index";
+
+		// graph or hash tables of loaded records are built on first use
+		if (searchMode.equals("approximate") && graph == null && records != null)
+			buildGraph();
+		if (searchMode.equals("lsh") && hashIndex == null && records != null)
+			buildHashIndex();
+
+		prepareKernel();
+	}
+
+	/***************************************************************************************************/
+
+	// Method to reset graph of approximate mode: links per record and
+	// candidates kept while building it, larger values give better recall
+	// and a slower build
+	public void setGraphParameters(int links, int efConstruction) {
+
+		if (links > 1)
+			graphLinks = links;
+		// in case of mis-input
+		else
+			graphLinks = 16;
+
+		if (efConstruction > 0)
+			this.efConstruction = efConstruction;
+		// in case of mis-input
+		else
+			this.efConstruction = 200;
+
+		// graph of loaded records is rebuilt with new parameters
+		graph = null;
+		if (searchMode.equals("approximate") && records != null)
+			buildGraph();
+	}
+
+	/***************************************************************************************************/
+
+	// Method to reset candidates kept while searching graph of approximate
+	// mode, at least k are kept, larger values give better recall
+	public void setEfSearch(int efSearch) {
+
+		if (efSearch > 0)
+			this.efSearch = efSearch;
+		// in case of mis-input
+		else
+			this.efSearch = 50;
+
+		if (graph != null)
+			graph.setEfSearch(this.efSearch);
+	}
+
+	/***************************************************************************************************/
+
+	// Method to reset distance kernel of the brute search: scalar (row by
+	// row with early abandon), vector (blocks of records column by column on
+	// the vector API, scalar block kernel if the module is missing)
+	public void setKernelMode(String mode) {
+
+		if (mode.equals("vector"))
+			kernel = DistanceKernel.blockKernel("vector");
+		// in case of mis-input
+		else
+			kernel = null;
+
+		prepareKernel();
+	}
+
+	/***************************************************************************************************/
+
+	// Method to reset distance metric: euclidean, squared, manhattan,
+	// chebyshev, hamming, gower, mixed (see DistanceMetric). Categorical
+	// columns of gower and mixed come from the schema
+	public void setDistanceMetric(String name) {
+		metricName = name;
+
+		// index of loaded records is rebuilt for new metric
+		if (records != null)
+			buildIndex();
+
+		prepareKernel();
+	}
+
+	/***************************************************************************************************/
+
+	// Method to reset hash tables of lsh mode: number of tables and
+	// projections per table signature. More tables give better recall, more
+	// projections smaller buckets and faster queries
+	public void setHashParameters(int tables, int projections) {
+
+		if (tables > 0)
+			hashTables = tables;
+		// in case of mis-input
+		else
+			hashTables = 16;
+
+		if (projections > 0)
+			hashProjections = projections;
+		// in case of mis-input
+		else
+			hashProjections = 5;
+
+		// hash tables of loaded records are rebuilt with new parameters
+		hashIndex = null;
+		if (searchMode.equals("lsh") && records != null)
+			buildHashIndex();
+	}
+
+	/***************************************************************************************************/
+
+	// Method to reset number of threads used by classifyData and to hash
+	// tables of lsh mode, 1 works on the calling thread
+	public void setParallelism(int threads) {
+
+		if (threads > 1)
+			parallelism = threads;
+		// in case of mis-input
+		else
+			parallelism = 1;
 	}
 
 	/***************************************************************************************************/
 
 	// Method loads training records from training file
 	public void loadTrainingData(String trainingFile) throws IOException {
-		Scanner inFile = new Scanner(new File(trainingFile));
+		DataTokenizer inFile = new DataTokenizer(trainingFile);
 
 		// read number of records, attributes, classes
 		numberRecords = inFile.nextInt();
@@ -55,8 +287,9 @@ public class NearestNeighbor {
 		numberNeighbors = inFile.nextInt();
 		majorityRule = inFile.next();
 
-		// empty list of records
-		records = new ArrayList<Record>();
+		// empty store of records
+		records = new TrainingStore(numberRecords, numberAttributes);
+		columns = null; // kernel copy of previous records
 
 		// for each record
 		for (int i = 0; i < numberRecords; i++) {
@@ -65,22 +298,133 @@ public class NearestNeighbor {
 
 			// read attributes and convert them to numerical form
 			for (int j = 0; j < numberAttributes; j++) {
-				String label = inFile.next();
-				attributeArray[j] = convert(label, j + 1);
+				attributeArray[j] = readAttribute(inFile, j + 1);
 			}
 
 			// read class and convert it to numerical form
 			String label = inFile.next();
 			int className = convert(label);
 
-			// create record
-			Record record = new Record(attributeArray, className);
-
-			// add record to list of records
-			records.add(record);
+			// add record to store of records
+			records.add(attributeArray, className);
 		}
 
 		inFile.close();
+
+		// index records once for all queries
+		buildIndex();
+		prepareKernel();
+	}
+
+	/***************************************************************************************************/
+
+	// Method loads training records from binary dataset file made from a
+	// training file by saveBinaryData or DatasetConverter
+	public void loadBinaryData(String binaryFile) throws IOException {
+		BinaryDataset dataset = BinaryDataset.openDoubles(binaryFile);
+
+		// read number of records, attributes, classes
+		numberRecords = dataset.getNumberRecords();
+		numberAttributes = dataset.getNumberAttributes();
+		numberClasses = dataset.getNumberClasses();
+
+		// read neighbors, majority rule
+		numberNeighbors = dataset.getNumberNeighbors();
+		majorityRule = dataset.getMajorityRule();
+
+		// store of records, attributes are already in numerical form
+		records = new TrainingStore(numberRecords, numberAttributes);
+		records.load(dataset);
+		columns = null; // kernel copy of previous records
+
+		dataset.close();
+
+		// index records once for all queries
+		buildIndex();
+		prepareKernel();
+	}
+
+	/***************************************************************************************************/
+
+	// Method saves training records as binary dataset file
+	public void saveBinaryData(String binaryFile) throws IOException {
+		double[][] columns = new double[numberAttributes][numberRecords];
+		int[] classes = new int[numberRecords];
+
+		// split records into attribute columns
+		for (int i = 0; i < numberRecords; i++) {
+			for (int j = 0; j < numberAttributes; j++)
+				columns[j][i] = records.getAttributes()[i * numberAttributes + j];
+			classes[i] = records.getClassName(i);
+		}
+
+		BinaryDataset.write(binaryFile, numberClasses, numberNeighbors, majorityRule, columns, classes);
+	}
+
+	/***************************************************************************************************/
+
+	// Method builds spatial index over training records, KD-tree for few
+	// attributes and ball tree for many, under the distance metric
+	private void buildIndex() {
+		metric = DistanceMetric.forName(metricName, schema.categoricalColumns(numberAttributes));
+
+		if (numberAttributes <= KD_TREE_MAX_ATTRIBUTES)
+			index = new KDTree(records.getAttributes(), numberRecords, numberAttributes, metric);
+		else
+			index = new BallTree(records.getAttributes(), numberRecords, numberAttributes, metric);
+
+		// graph and hash tables follow records and metric
+		graph = null;
+		if (searchMode.equals("approximate"))
+			buildGraph();
+		hashIndex = null;
+		if (searchMode.equals("lsh"))
+			buildHashIndex();
+	}
+
+	/***************************************************************************************************/
+
+	// Method builds graph of approximate mode over training records
+	private void buildGraph() {
+		graph = new HnswIndex(records.getAttributes(), numberRecords, numberAttributes, metric, graphLinks,
+				efConstruction, GRAPH_SEED);
+		graph.setEfSearch(efSearch);
+	}
+
+	/***************************************************************************************************/
+
+	// Method builds hash tables of lsh mode over training records
+	private void buildHashIndex() {
+		hashIndex = new LshIndex(records.getAttributes(), numberRecords, numberAttributes, metric, hashTables,
+				hashProjections, HASH_SEED, parallelism);
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns index searched in current search mode, null in brute
+	// mode or if no records are loaded
+	private NeighborIndex searchIndex() {
+		if (searchMode.equals("index"))
+			return index;
+		if (searchMode.equals("approximate"))
+			return graph;
+		if (searchMode.equals("lsh"))
+			return hashIndex;
+
+		return null;
+	}
+
+	/***************************************************************************************************/
+
+	// Method keeps column-major copy of records while the block kernel is
+	// used, brute search under squared euclidean ranking, and drops it
+	// otherwise
+	private void prepareKernel() {
+		if (kernel != null && records != null && searchMode.equals("brute") && metric.isSquaredEuclidean()) {
+			if (columns == null)
+				columns = records.toColumns();
+		} else
+			columns = null;
 	}
 
 	/***************************************************************************************************/
@@ -88,12 +432,15 @@ public class NearestNeighbor {
 	// Method reads test records from test file and writes classes
 	// to classified file
 	public void classifyData(String testFile, String classifiedFile) throws IOException {
-		Scanner inFile = new Scanner(new File(testFile));
+		DataTokenizer inFile = new DataTokenizer(testFile);
 		PrintWriter outFile = new PrintWriter(new FileWriter(classifiedFile));
 
 		// read number of records
 		int numberRecords = inFile.nextInt();
 
+		// batch of test records
+		double[][] batch = new double[numberRecords][];
+
 		// for each record
 		for (int i = 0; i < numberRecords; i++) {
 			// create attribute array
@@ -101,17 +448,69 @@ public class NearestNeighbor {
 
 			// read attributes and convert them to numerical form
 			for (int j = 0; j < numberAttributes; j++) {
-				String label = inFile.next();
-				attributeArray[j] = convert(label, j + 1);
+				attributeArray[j] = readAttribute(inFile, j + 1);
 			}
 
-			// find class of attribute
-			int className = classify(attributeArray);
+			batch[i] = attributeArray;
+		}
+
+		// find classes of whole batch
+		int[] classes = classifyBatch(batch);
 
-			// find class label and write to output file
-			String label = convert(className);
+		// find class labels and write to output file in original order
+		for (int i = 0; i < numberRecords; i++) {
+			String label = convert(classes[i]);
 			outFile.println(label);
+		}
+
+		inFile.close();
+		outFile.close();
+	}
+
+	/***************************************************************************************************/
 
+	// Method reads test records from a test file without record count until
+	// end of file and writes classes to classified file. Records are read,
+	// classified and written in batches whose arrays are reused, so memory
+	// does not grow with the test file
+	public void classifyStream(String testFile, String classifiedFile) throws IOException {
+		DataTokenizer inFile = new DataTokenizer(testFile);
+		BufferedWriter outFile = new BufferedWriter(new FileWriter(classifiedFile), STREAM_BUFFER);
+
+		// reused batch of test records and their classes
+		double[][] batch = new double[STREAM_BATCH][numberAttributes];
+		int[] classes = new int[STREAM_BATCH];
+
+		// one pool for all batches if more than one thread is configured
+		ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+		try {
+			while (inFile.hasNext()) {
+				// read attributes of next batch and convert them to
+				// numerical form
+				int size = 0;
+				while (size < STREAM_BATCH && inFile.hasNext()) {
+					for (int j = 0; j < numberAttributes; j++) {
+						batch[size][j] = readAttribute(inFile, j + 1);
+					}
+					size++;
+				}
+
+				// find classes of batch
+				if (pool == null) {
+					for (int i = 0; i < size; i++)
+						classes[i] = classify(batch[i]);
+				} else
+					pool.invoke(new ClassifyTask(batch, classes, 0, size));
+
+				// write class labels in original order
+				for (int i = 0; i < size; i++) {
+					outFile.write(convert(classes[i]));
+					outFile.newLine();
+				}
+			}
+		} finally {
+			if (pool != null)
+				pool.shutdown();
 		}
 
 		inFile.close();
@@ -120,22 +519,88 @@ public class NearestNeighbor {
 
 	/***************************************************************************************************/
 
-	// Method finds class of given attributes
-	private int classify(double[] attributes) {
+	// Method finds classes of a batch of records, in parallel if more than
+	// one thread is configured
+	private int[] classifyBatch(double[][] batch) {
+		int[] classes = new int[batch.length];
+
+		if (parallelism <= 1) {
+			for (int i = 0; i < batch.length; i++)
+				classes[i] = classify(batch[i]);
+		} else {
+			ForkJoinPool pool = new ForkJoinPool(parallelism);
+			try {
+				pool.invoke(new ClassifyTask(batch, classes, 0, batch.length));
+			} finally {
+				pool.shutdown();
+			}
+		}
+
+		return classes;
+	}
+
+	/***************************************************************************************************/
+
+	// Method finds class of given attributes (package-private for the
+	// benchmarks). Neighbors are ranked on the ranking key of the metric and
+	// only their distances reach the vote
+	int classify(double[] attributes) {
+		// exact search through spatial index, approximate through graph or
+		// hash tables
+		NeighborIndex searched = searchIndex();
+		if (searched != null) {
+			double[] distance = new double[numberNeighbors];
+			int[] id = new int[numberNeighbors];
+
+			searched.search(attributes, numberNeighbors, distance, id);
+
+			return majority(id, distance);
+		}
+
+		// all distances of a query at once through block kernel, which
+		// computes squared euclidean distances
+		if (kernel != null && metric.isSquaredEuclidean()) {
+			double[] distance = new double[numberRecords];
+			int[] id = new int[numberRecords];
+
+			kernel.squaredDistances(attributes, columns, numberRecords, numberAttributes, 0, numberRecords, distance);
+			for (int i = 0; i < numberRecords; i++)
+				id[i] = i;
+
+			nearestNeighbor(distance, id);
+			toDistances(distance, Math.min(numberNeighbors, numberRecords));
+
+			return majority(id, distance);
+		}
+
+		// one pass through a bounded heap, abandoning records that are
+		// already farther than the current k-th best
+		if (usesHeap()) {
+			double[] distance = new double[numberNeighbors];
+			int[] id = new int[numberNeighbors];
+
+			scan(attributes, distance, id);
+
+			return majority(id, distance);
+		}
+
+		double[] data = records.getAttributes();
 		double[] distance = new double[numberRecords];
 		int[] id = new int[numberRecords];
 
-		// find distance between attributes and all records
-		for (int i = 0; i < numberRecords; i++) {
-			distance[i] = distance(attributes, records.get(i).attributes);
+		// find ranking key between attributes and all records, walking the
+		// row-major store sequentially
+		for (int i = 0, offset = 0; i < numberRecords; i++, offset += numberAttributes) {
+			distance[i] = metric.rank(attributes, data, offset, numberAttributes, Double.POSITIVE_INFINITY);
 			id[i] = i;
 		}
 
 		// find the nearest neighbors
 		nearestNeighbor(distance, id);
+		toDistances(distance, Math.min(numberNeighbors, numberRecords));
 
 		// find majority class of neighbors
-		int className = majority(id, attributes);
+		int className = majority(id, distance);
 
 		// return class
 		return className;
@@ -143,27 +608,52 @@ public class NearestNeighbor {
 
 	/***************************************************************************************************/
 
-	// Method finds the nearest neighbors
-	private void nearestNeighbor(double[] distance, int[] id) {
-		// sort the records by their distances and choose
-		// the closest neighbor
-		for (int i = 0; i < numberNeighbors; i++)
-			for (int j = i; j < numberRecords; j++)
-				if (distance[i] > distance[j]) {
-					double tempDistance = distance[i];
-					distance[i] = distance[j];
-					distance[j] = tempDistance;
+	// Method decides whether the scan selects neighbors with a heap, as the
+	// selector would for the current mode
+	private boolean usesHeap() {
+		return NeighborSelector.usesHeap(numberNeighbors, numberRecords, selectionMode);
+	}
 
-					int tempId = id[i];
-					id[i] = id[j];
-					id[j] = tempId;
-				}
+	/***************************************************************************************************/
+
+	// Method scans all records into a bounded heap on the ranking key and
+	// writes the nearest neighbors and their distances in ascending order
+	private void scan(double[] attributes, double[] distance, int[] id) {
+		double[] data = records.getAttributes();
+		NeighborHeap heap = new NeighborHeap(Math.min(numberNeighbors, numberRecords));
+
+		for (int i = 0, offset = 0; i < numberRecords; i++, offset += numberAttributes) {
+			double worst = heap.worst();
+			double d = metric.rank(attributes, data, offset, numberAttributes, worst);
+			if (d <= worst)
+				heap.offer(d, i);
+		}
+
+		int count = heap.drain(distance, id);
+		toDistances(distance, count);
 	}
 
 	/***************************************************************************************************/
 
-	// Method finds the majority class of nearest neighbors
-	private int majority(int[] id, double[] attributes) {
+	// Method converts the first count ranking keys to distances
+	private void toDistances(double[] distance, int count) {
+		for (int i = 0; i < count; i++)
+			distance[i] = metric.distance(distance[i]);
+	}
+
+	/***************************************************************************************************/
+
+	// Method finds the nearest neighbors (package-private for the benchmarks)
+	void nearestNeighbor(double[] distance, int[] id) {
+		// move the closest neighbors to the front in order
+		NeighborSelector.select(distance, id, numberRecords, numberNeighbors, selectionMode);
+	}
+
+	/***************************************************************************************************/
+
+	// Method finds the majority class of nearest neighbors, given with their
+	// distances
+	private int majority(int[] id, double[] distance) {
 		double[] frequency = new double[numberClasses];
 
 		// class frequencies are zero initially
@@ -174,15 +664,13 @@ public class NearestNeighbor {
 		if (majorityRule.equals("unweighted")) {
 			// each neighbor contributes 1 to its class
 			for (int i = 0; i < numberNeighbors; i++)
-				frequency[records.get(id[i]).className - 1] += 1;
+				frequency[records.getClassName(id[i]) - 1] += 1;
 		}
 		// if weighted majority rule is used
 		else {
 			// each neighbor contributes 1/distance to its class
-			for (int i = 0; i < numberNeighbors; i++) {
-				double d = distance(records.get(id[i]).attributes, attributes);
-				frequency[records.get(id[i]).className - 1] += 1 / (d + 0.001); //distance could be 0
-			}
+			for (int i = 0; i < numberNeighbors; i++)
+				frequency[records.getClassName(id[i]) - 1] += 1 / (distance[i] + 0.001); //distance could be 0
 		}
 
 		// find majority class
@@ -199,7 +687,7 @@ public class NearestNeighbor {
 	//Method validates classifier using validation file and displays error rate
 	public void validate(String validationFile) throws IOException
 	{
-		Scanner inFile = new Scanner(new File(validationFile));
+		DataTokenizer inFile = new DataTokenizer(validationFile);
 
 		//read number of records
 		int numberRecords = inFile.nextInt();
@@ -215,8 +703,7 @@ public class NearestNeighbor {
 			//read attributes
 			for(int j = 0; j < numberAttributes; j++)
 			{
-				String label = inFile.next();
-				attributeArray[j] = convert(label, j + 1);
+				attributeArray[j] = readAttribute(inFile, j + 1);
 			}
 
 			//read actual class
@@ -240,87 +727,144 @@ public class NearestNeighbor {
 
 	/***************************************************************************************************/
 
-	//Method converts attribute value to numerical values. Hard coded for 
-	//specific application
-	private double convert(String label, int column)
-	{
-		double value;
-
-		//convert sex attribute to 0/1
-		if(column == 1)
-		{
-			if(label.equals("male"))
-				value = 0;
-			else 
-				value = 1;
-		}
-		//convert score attribute to [0, 1] range
-		else if(column == 2)
-		{
-			value = Double.valueOf(label);
-			value = value/100;
+	// Method measures the index of the current search mode (index,
+	// approximate, lsh) against brute force on the records of a test file:
+	// displays and returns recall, the percentage of the exact k nearest
+	// neighbors the index finds, and how often both give the same class.
+	// Measures the graph of approximate mode in brute mode
+	public double approximateRecall(String testFile) throws IOException {
+		NeighborIndex searched = searchIndex();
+		if (searched == null) {
+			if (graph == null)
+				buildGraph();
+			searched = graph;
 		}
-		//convert grade attribute to [0, 1] range
-		else
-		{
-			if(label.equals("A"))
-				value = 1.0;
-			else if (label.equals("B"))
-				value = 0.6;
-			else
-				value = 0.2;
+
+		DataTokenizer inFile = new DataTokenizer(testFile);
+
+		// read number of records
+		int numberRecords = inFile.nextInt();
+
+		int k = Math.min(numberNeighbors, this.numberRecords);
+		double[] distance = new double[numberNeighbors];
+		int[] id = new int[numberNeighbors];
+		double[] exactDistance = new double[numberNeighbors];
+		int[] exactId = new int[numberNeighbors];
+
+		long found = 0;
+		int sameClass = 0;
+		long approximateTime = 0;
+		long exactTime = 0;
+
+		// for each record
+		for (int i = 0; i < numberRecords; i++) {
+			double[] attributeArray = new double[numberAttributes];
+
+			// read attributes and convert them to numerical form
+			for (int j = 0; j < numberAttributes; j++) {
+				attributeArray[j] = readAttribute(inFile, j + 1);
+			}
+
+			long start = System.nanoTime();
+			searched.search(attributeArray, numberNeighbors, distance, id);
+			int approximateClass = majority(id, distance);
+			approximateTime += System.nanoTime() - start;
+
+			start = System.nanoTime();
+			scan(attributeArray, exactDistance, exactId);
+			int exactClass = majority(exactId, exactDistance);
+			exactTime += System.nanoTime() - start;
+
+			// exact neighbors the graph found as well
+			for (int a = 0; a < k; a++)
+				for (int b = 0; b < k; b++)
+					if (id[a] == exactId[b]) {
+						found++;
+						break;
+					}
+
+			if (approximateClass == exactClass)
+				sameClass++;
 		}
 
-		return value;
+		inFile.close();
+
+		// find and print recall and class agreement
+		double recall = 100.0 * found / ((long) k * numberRecords);
+		System.out.println(recall + " percent recall of " + k + " nearest neighbors");
+		System.out.println(100.0 * sameClass / numberRecords + " percent same class as brute force");
+		System.out.printf("%.1f us %s, %.1f us brute force per record\n",
+				approximateTime / 1e3 / numberRecords, searched == graph ? "approximate" : searchMode,
+				exactTime / 1e3 / numberRecords);
+
+		return recall;
 	}
 
 	/***************************************************************************************************/
 
-	//Method converts class labels to integer values. Hard coded for specific application
-	private int convert (String label)
+	//Method declares how labels are converted to numerical values. Hard coded
+	//for specific application
+	private static DatasetSchema defaultSchema()
 	{
-		int value;
+		DatasetSchema schema = new DatasetSchema(3);
+
+		//sex: male 0, female 1
+		schema.setCategorical(1, new String[] { "male" }, new double[] { 0 }, 1);
+		//score: 0-100 to [0, 1] range
+		schema.setNumeric(2, 0, 100);
+		//grade: A, B, C to [0, 1] range
+		schema.setCategorical(3, new String[] { "A", "B" }, new double[] { 1.0, 0.6 }, 0.2);
 
-		if(label.equals("high"))
-			value = 1;
-		else if(label.equals("medium"))
-			value = 2;
-		else 
-			value = 3;
+		//class labels, unknown label is the last class
+		schema.setClasses(new String[] { "high", "medium", "low" });
 
-		return value;
+		return schema;
 	}
 
 	/***************************************************************************************************/
 
-	//Method converts integer values to class labels. Hard coded for specific application
-	private String convert(int value)
+	//Method reads attribute of column from file, numbers of numeric columns
+	//are parsed straight from the bytes and labels go through the schema
+	private double readAttribute(DataTokenizer inFile, int column) throws IOException
 	{
-		String label;
+		if (schema.isNumber(column))
+			return schema.encode(inFile.nextDouble(), column);
 
-		if(value == 1)
-			label = "high";
-		else if(value == 2)
-			label = "medium";
-		else
-			label = "low";
+		return convert(inFile.next(), column);
+	}
 
-		return label;
+	/***************************************************************************************************/
+
+	//Method converts attribute value to numerical values using schema
+	private double convert(String label, int column)
+	{
+		return schema.encode(label, column);
+	}
+
+	/***************************************************************************************************/
+
+	//Method converts class labels to integer values using schema
+	private int convert(String label)
+	{
+		return schema.encodeClass(label);
 	}
 
 	/***************************************************************************************************/
 
-	//Method finds distance between two records. Hard coded for specific application
-	private double distance(double[] u, double[] v)
+	//Method converts integer values to class labels using schema
+	private String convert(int value)
 	{
-		double distance = 0;
+		return schema.decodeClass(value);
+	}
 
-		for (int i = 0; i < u.length; i++)
-			distance = distance + (u[i] - v[i])*(u[i] - v[i]);
 
-		distance = Math.sqrt(distance);
+	/***************************************************************************************************/
 
-		return distance;
+	//Method finds distance between a record and the stored record at given
+	//offset under the distance metric (package-private for the benchmarks)
+	double distance(double[] u, double[] data, int offset)
+	{
+		return metric.distance(metric.rank(u, data, offset, u.length, Double.POSITIVE_INFINITY));
 	}
 
 
@@ -0,0 +1,147 @@
+package First;
+
+// Bounded max-heap of (distance, id) candidates used while searching for the
+// k nearest neighbors. The root is always the worst candidate kept so far,
+// so a new candidate only has to beat the root to get in. Ties on distance
+// are broken by id, smaller id being nearer.
+
+public class NeighborHeap {
+
+	/***************************************************************************************************/
+
+	private double[] distance; // candidate distances in heap order
+	private int[] id; // candidate ids in heap order
+	private int capacity; // number of neighbors wanted
+	private int size; // number of candidates kept
+
+	/***************************************************************************************************/
+
+	// Constructor of heap
+	public NeighborHeap(int capacity) {
+		this.distance = new double[capacity];
+		this.id = new int[capacity];
+		this.capacity = capacity;
+		this.size = 0;
+	}
+
+	/***************************************************************************************************/
+
+	// Method empties heap so that it can be reused for another query
+	public void clear() {
+		size = 0;
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns number of candidates kept
+	public int size() {
+		return size;
+	}
+
+	/***************************************************************************************************/
+
+	// Method decides whether heap holds k candidates
+	public boolean isFull() {
+		return size == capacity;
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns distance a new candidate must not exceed to get in,
+	// infinity while heap is not full
+	public double worst() {
+		if (size < capacity)
+			return Double.POSITIVE_INFINITY;
+
+		return distance[0];
+	}
+
+	/***************************************************************************************************/
+
+	// Method offers a candidate, returns true if it was kept
+	public boolean offer(double d, int index) {
+		if (capacity == 0)
+			return false;
+
+		// heap not full yet, sift new candidate up
+		if (size < capacity) {
+			int child = size++;
+			while (child > 0) {
+				int parent = (child - 1) / 2;
+				if (!less(distance[parent], id[parent], d, index))
+					break;
+				distance[child] = distance[parent];
+				id[child] = id[parent];
+				child = parent;
+			}
+			distance[child] = d;
+			id[child] = index;
+			return true;
+		}
+
+		// closer than current worst, replace root
+		if (less(d, index, distance[0], id[0])) {
+			siftDown(size, d, index);
+			return true;
+		}
+
+		return false;
+	}
+
+	/***************************************************************************************************/
+
+	// Method writes candidates to the front of given arrays in ascending
+	// order and empties heap, returns number of candidates written
+	public int drain(double[] outDistance, int[] outId) {
+		int count = size;
+
+		// pop the heap from the back so that the front is in ascending order
+		for (int i = count - 1; i >= 0; i--) {
+			double rootDistance = distance[0];
+			int rootId = id[0];
+
+			if (i > 0)
+				siftDown(i, distance[i], id[i]);
+
+			outDistance[i] = rootDistance;
+			outId[i] = rootId;
+		}
+
+		size = 0;
+		return count;
+	}
+
+	/***************************************************************************************************/
+
+	// Method places given candidate at the root of a heap of given size and
+	// moves it down to its position
+	private void siftDown(int size, double d, int index) {
+		int parent = 0;
+		while (true) {
+			int child = 2 * parent + 1;
+			if (child >= size)
+				break;
+
+			// pick the larger child
+			if (child + 1 < size && less(distance[child], id[child], distance[child + 1], id[child + 1]))
+				child++;
+
+			if (!less(d, index, distance[child], id[child]))
+				break;
+
+			distance[parent] = distance[child];
+			id[parent] = id[child];
+			parent = child;
+		}
+		distance[parent] = d;
+		id[parent] = index;
+	}
+
+	/***************************************************************************************************/
+
+	// Method orders candidates by distance, then by id
+	private static boolean less(double d1, int id1, double d2, int id2) {
+		return d1 < d2 || (d1 == d2 && id1 < id2);
+	}
+
+}
@@ -0,0 +1,14 @@
+package First;
+
+// Index over training points that answers exact or approximate k nearest
+// neighbor queries without scanning every point. Implementations must be
+// safe to search from several threads once built.
+
+public interface NeighborIndex {
+
+	// Method finds the k nearest points to query and writes their distances
+	// and ids to the front of given arrays in ascending order, returns number
+	// of neighbors found
+	public int search(double[] query, int k, double[] distance, int[] id);
+
+}
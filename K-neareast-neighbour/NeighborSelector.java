@@ -0,0 +1,192 @@
+package First;
+
+// Neighbor selection engine shared by the nearest neighbor classifiers.
+// Rearranges parallel distance/id arrays so that the first k entries hold
+// the k nearest records in ascending order of distance. Ties on distance
+// are broken by record id so every mode returns the same neighbors.
+//
+// mode: heap        - bounded max-heap, one pass, O(n log k)
+//       quickselect - in place partitioning, O(n + k log k)
+//       auto        - heap for small k/n ratio, quickselect otherwise
+
+public class NeighborSelector {
+
+	/***************************************************************************************************/
+
+	// k/n ratio at or below which auto mode prefers the heap
+	private static final double HEAP_RATIO = 0.125;
+
+	// below this size ranges are sorted by insertion sort
+	private static final int INSERTION_LIMIT = 16;
+
+	/***************************************************************************************************/
+
+	private NeighborSelector() {
+	}
+
+	/***************************************************************************************************/
+
+	// Method selects the k nearest neighbors among the first n entries, returns
+	// the number of neighbors actually selected (k clamped to n)
+	public static int select(double[] distance, int[] id, int n, int k, String mode) {
+		if (k > n)
+			k = n;
+		if (k <= 0)
+			return 0;
+
+		if (usesHeap(k, n, mode))
+			heapSelect(distance, id, n, k);
+		else
+			quickSelect(distance, id, n, k);
+
+		return k;
+	}
+
+	/***************************************************************************************************/
+
+	// Method decides whether select picks k of n neighbors with the heap in
+	// given mode, so that callers scanning on their own can do the same
+	public static boolean usesHeap(int k, int n, String mode) {
+		if (mode.equals("heap"))
+			return true;
+		if (mode.equals("quickselect"))
+			return false;
+
+		// auto
+		return k <= HEAP_RATIO * n;
+	}
+
+	/***************************************************************************************************/
+
+	// Method keeps the k best entries in a bounded max-heap while scanning the
+	// arrays once, then writes them sorted to the front of the arrays
+	private static void heapSelect(double[] distance, int[] id, int n, int k) {
+		NeighborHeap heap = new NeighborHeap(k);
+
+		// single pass over all entries
+		for (int i = 0; i < n; i++)
+			heap.offer(distance[i], id[i]);
+
+		heap.drain(distance, id);
+	}
+
+	/***************************************************************************************************/
+
+	// Method partitions the arrays in place until the k smallest entries are
+	// in front, then sorts those k entries
+	private static void quickSelect(double[] distance, int[] id, int n, int k) {
+		int low = 0;
+		int high = n - 1;
+
+		while (high - low >= INSERTION_LIMIT) {
+			int pivot = partition(distance, id, low, high);
+
+			if (pivot == k - 1 || pivot == k)
+				break;
+			else if (pivot < k)
+				low = pivot + 1;
+			else
+				high = pivot - 1;
+		}
+
+		// finish small range directly
+		if (high - low < INSERTION_LIMIT && low < k)
+			insertionSort(distance, id, low, high);
+
+		sort(distance, id, 0, k - 1);
+	}
+
+	/***************************************************************************************************/
+
+	// Method sorts a range of the arrays in ascending order
+	private static void sort(double[] distance, int[] id, int low, int high) {
+		while (high - low >= INSERTION_LIMIT) {
+			int pivot = partition(distance, id, low, high);
+
+			// recurse into smaller half, loop over larger half
+			if (pivot - low < high - pivot) {
+				sort(distance, id, low, pivot - 1);
+				low = pivot + 1;
+			} else {
+				sort(distance, id, pivot + 1, high);
+				high = pivot - 1;
+			}
+		}
+		insertionSort(distance, id, low, high);
+	}
+
+	/***************************************************************************************************/
+
+	// Method partitions a range around a median of three pivot, returns final
+	// position of pivot
+	private static int partition(double[] distance, int[] id, int low, int high) {
+		int middle = (low + high) >>> 1;
+
+		// order low, middle, high
+		if (less(distance[middle], id[middle], distance[low], id[low]))
+			swap(distance, id, low, middle);
+		if (less(distance[high], id[high], distance[low], id[low]))
+			swap(distance, id, low, high);
+		if (less(distance[high], id[high], distance[middle], id[middle]))
+			swap(distance, id, middle, high);
+
+		// move pivot next to high end
+		swap(distance, id, middle, high - 1);
+		double pivotDistance = distance[high - 1];
+		int pivotId = id[high - 1];
+
+		int i = low;
+		int j = high - 1;
+		while (true) {
+			while (less(distance[++i], id[i], pivotDistance, pivotId))
+				;
+			while (less(pivotDistance, pivotId, distance[--j], id[j]))
+				;
+			if (i >= j)
+				break;
+			swap(distance, id, i, j);
+		}
+
+		swap(distance, id, i, high - 1);
+		return i;
+	}
+
+	/***************************************************************************************************/
+
+	// Method sorts a small range of the arrays by insertion
+	private static void insertionSort(double[] distance, int[] id, int low, int high) {
+		for (int i = low + 1; i <= high; i++) {
+			double d = distance[i];
+			int index = id[i];
+			int j = i - 1;
+			while (j >= low && less(d, index, distance[j], id[j])) {
+				distance[j + 1] = distance[j];
+				id[j + 1] = id[j];
+				j--;
+			}
+			distance[j + 1] = d;
+			id[j + 1] = index;
+		}
+	}
+
+	/***************************************************************************************************/
+
+	// Method orders entries by distance, then by id
+	private static boolean less(double d1, int id1, double d2, int id2) {
+		return d1 < d2 || (d1 == d2 && id1 < id2);
+	}
+
+	/***************************************************************************************************/
+
+	// Method swaps two entries of the arrays
+	private static void swap(double[] distance, int[] id, int i, int j) {
+		double tempDistance = distance[i];
+		distance[i] = distance[j];
+		distance[j] = tempDistance;
+
+		int tempId = id[i];
+		id[i] = id[j];
+		id[j] = tempId;
+	}
+
+}
@@ -0,0 +1,26 @@
+package First;
+
+// Block kernel in plain Java, used when the vector API is not available.
+
+public class ScalarBlockKernel implements BlockKernel {
+
+	/***************************************************************************************************/
+
+	// Method writes squared distances from query to a block of records
+	public void squaredDistances(double[] query, double[] columns, int numberRecords, int numberAttributes,
+			int start, int end, double[] distance) {
+
+		for (int i = start; i < end; i++)
+			distance[i] = 0;
+
+		// one attribute at a time over the whole block
+		for (int j = 0, column = 0; j < numberAttributes; j++, column += numberRecords) {
+			double q = query[j];
+			for (int i = start; i < end; i++) {
+				double diff = q - columns[column + i];
+				distance[i] = distance[i] + diff * diff;
+			}
+		}
+	}
+
+}
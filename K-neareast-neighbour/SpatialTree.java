@@ -0,0 +1,140 @@
+package First;
+
+// Common part of the binary space partitioning indexes (KDTree, BallTree).
+// Point ids are reordered while the tree is built so that every node covers
+// a contiguous range of them. A leaf scan reads its points through the ids
+// from the caller's row-major array, so the tree keeps no copy of the
+// points. Searches keep their candidates on the ranking key of the distance
+// metric and convert only the k found to distances.
+
+public abstract class SpatialTree implements NeighborIndex {
+
+	/***************************************************************************************************/
+
+	// maximum number of points in a leaf
+	protected static final int LEAF_SIZE = 16;
+
+	/***************************************************************************************************/
+
+	protected double[] data; // points being indexed row-major, not copied
+	protected int[] ids; // point ids in tree order
+	protected int numberPoints; // number of points
+	protected int numberDimensions; // number of coordinates per point
+	protected DistanceMetric metric; // distance between points
+
+	/***************************************************************************************************/
+
+	// Constructor of tree over row-major points, subclasses build their
+	// nodes. The points must not change while the tree is used
+	protected SpatialTree(double[] data, int numberPoints, int numberDimensions, DistanceMetric metric) {
+		this.data = data;
+		this.numberPoints = numberPoints;
+		this.numberDimensions = numberDimensions;
+		this.metric = metric;
+
+		ids = new int[numberPoints];
+		for (int i = 0; i < numberPoints; i++)
+			ids[i] = i;
+	}
+
+	/***************************************************************************************************/
+
+	// Method finds dimension with largest spread of points in range, returns
+	// -1 if all points in range are equal
+	protected int widestDimension(int start, int end) {
+		int bestDimension = -1;
+		double bestSpread = 0;
+
+		for (int j = 0; j < numberDimensions; j++) {
+			double min = Double.POSITIVE_INFINITY;
+			double max = Double.NEGATIVE_INFINITY;
+
+			for (int i = start; i < end; i++) {
+				double value = value(ids[i], j);
+				if (value < min)
+					min = value;
+				if (value > max)
+					max = value;
+			}
+
+			if (max - min > bestSpread) {
+				bestSpread = max - min;
+				bestDimension = j;
+			}
+		}
+
+		return bestDimension;
+	}
+
+	/***************************************************************************************************/
+
+	// Method rearranges ids in range so that id at position middle has its
+	// sorted value on given dimension, smaller values before, larger after
+	protected void selectMedian(int start, int end, int middle, int dimension) {
+		int low = start;
+		int high = end - 1;
+
+		while (low < high) {
+			double pivot = value(ids[(low + high) >>> 1], dimension);
+			int i = low;
+			int j = high;
+
+			// hoare partition around pivot value
+			while (i <= j) {
+				while (value(ids[i], dimension) < pivot)
+					i++;
+				while (value(ids[j], dimension) > pivot)
+					j--;
+				if (i <= j) {
+					int temp = ids[i];
+					ids[i] = ids[j];
+					ids[j] = temp;
+					i++;
+					j--;
+				}
+			}
+
+			// continue in the part holding middle
+			if (middle <= j)
+				high = j;
+			else if (middle >= i)
+				low = i;
+			else
+				break;
+		}
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns coordinate of point
+	protected double value(int point, int dimension) {
+		return data[point * numberDimensions + dimension];
+	}
+
+	/***************************************************************************************************/
+
+	// Method offers all points of range to heap, which ranks them on the
+	// ranking key of the metric. Points already beyond the worst kept are
+	// abandoned part way
+	protected void scanLeaf(double[] query, int start, int end, NeighborHeap heap) {
+		for (int i = start; i < end; i++) {
+			double worst = heap.worst();
+			double rank = metric.rank(query, data, ids[i] * numberDimensions, numberDimensions, worst);
+			if (rank <= worst)
+				heap.offer(rank, ids[i]);
+		}
+	}
+
+	/***************************************************************************************************/
+
+	// Method drains heap of ranking keys into given arrays as distances,
+	// returns number of neighbors found
+	protected int drain(NeighborHeap heap, double[] distance, int[] id) {
+		int count = heap.drain(distance, id);
+		for (int i = 0; i < count; i++)
+			distance[i] = metric.distance(distance[i]);
+
+		return count;
+	}
+
+}
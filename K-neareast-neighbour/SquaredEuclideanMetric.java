@@ -0,0 +1,44 @@
+package First;
+
+// Squared euclidean distance. Ranks like euclidean but votes with the
+// squared distance, so near neighbors weigh more; the ball tree still
+// prunes on the root since the square is no metric.
+
+public final class SquaredEuclideanMetric implements DistanceMetric {
+
+	/***************************************************************************************************/
+
+	// Method finds squared distance, abandoned once above bound
+	public double rank(double[] u, double[] data, int offset, int n, double bound) {
+		return DistanceKernel.squaredDistance(u, data, offset, n, bound);
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns squared distance as it is
+	public double distance(double rank) {
+		return rank;
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns squared distance to splitting plane
+	public double planeRank(int dimension, double diff) {
+		return diff * diff;
+	}
+
+	/***************************************************************************************************/
+
+	// Method takes root of squared distance for the triangle inequality
+	public double metric(double rank) {
+		return Math.sqrt(rank);
+	}
+
+	/***************************************************************************************************/
+
+	// Method decides whether ranking key is the squared euclidean distance
+	public boolean isSquaredEuclidean() {
+		return true;
+	}
+
+}
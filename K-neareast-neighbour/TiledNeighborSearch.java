@@ -0,0 +1,135 @@
+package First;
+
+// Exact k nearest neighbor search for many queries at once. Queries and
+// training records are cut into tiles: a tile of training records small
+// enough to stay in L1/L2 cache is scored against a whole tile of queries
+// before the next one is loaded, instead of streaming all records from
+// memory again for every query. Each query keeps a bounded heap on the
+// ranking key of the distance metric, and a record is abandoned part way
+// once it cannot beat the worst neighbor kept. Ties are broken by record id,
+// so the neighbors found are the ones a scan of one query at a time finds in
+// any selection mode.
+
+public class TiledNeighborSearch {
+
+	/***************************************************************************************************/
+
+	// bytes of training records per tile
+	private static final int TILE_BYTES = 1 << 15;
+
+	// number of queries scored against a tile before the next tile
+	private static final int QUERY_TILE = 32;
+
+	/***************************************************************************************************/
+
+	private double[][] rows; // training records, walked by tiles, not copied
+	private int numberRecords; // number of training records
+	private int numberAttributes; // number of attributes per record
+	private int tileRecords; // number of training records per tile
+	private DistanceMetric metric; // distance between records
+
+	/***************************************************************************************************/
+
+	// Constructor of search over given training records, which must not
+	// change while the search is used
+	public TiledNeighborSearch(double[][] rows, int numberAttributes, DistanceMetric metric) {
+		this.rows = rows;
+		this.metric = metric;
+		this.numberRecords = rows.length;
+		this.numberAttributes = numberAttributes;
+		this.tileRecords = Math.max(QUERY_TILE, TILE_BYTES / (8 * Math.max(1, numberAttributes)));
+	}
+
+	/***************************************************************************************************/
+
+	// Method finds the k nearest training records of every query and writes
+	// their distances and ids in ascending order to distance[q] and id[q],
+	// returns number of neighbors found per query (k clamped to number of
+	// records)
+	public int search(double[][] queries, int k, double[][] distance, int[][] id) {
+		int count = Math.max(0, Math.min(k, numberRecords));
+
+		NeighborHeap[] heaps = new NeighborHeap[QUERY_TILE];
+		for (int q = 0; q < QUERY_TILE; q++)
+			heaps[q] = new NeighborHeap(count);
+
+		for (int queryStart = 0; queryStart < queries.length; queryStart += QUERY_TILE) {
+			int queryEnd = Math.min(queries.length, queryStart + QUERY_TILE);
+
+			// every training tile against the whole query tile
+			for (int tileStart = 0; tileStart < numberRecords; tileStart += tileRecords) {
+				int tileEnd = Math.min(numberRecords, tileStart + tileRecords);
+
+				for (int q = queryStart; q < queryEnd; q++) {
+					NeighborHeap heap = heaps[q - queryStart];
+					double[] query = queries[q];
+
+					for (int i = tileStart; i < tileEnd; i++) {
+						double worst = heap.worst();
+						double d = metric.rank(query, rows[i], 0, numberAttributes, worst);
+						if (d <= worst)
+							heap.offer(d, i);
+					}
+				}
+			}
+
+			for (int q = queryStart; q < queryEnd; q++)
+				drain(heaps[q - queryStart], distance[q], id[q]);
+		}
+
+		return count;
+	}
+
+	/***************************************************************************************************/
+
+	// Method finds for every training record its k nearest other records and
+	// writes them like search, returns number of neighbors found per record
+	// (k clamped to number of records - 1). Each pair of records is scored
+	// once, for tiles of records against themselves and the tiles after them
+	public int searchOthers(int k, double[][] distance, int[][] id) {
+		int count = Math.max(0, Math.min(k, numberRecords - 1));
+
+		// one heap per record, a record is never offered to its own heap
+		NeighborHeap[] heaps = new NeighborHeap[numberRecords];
+		for (int i = 0; i < numberRecords; i++)
+			heaps[i] = new NeighborHeap(count);
+
+		for (int rowStart = 0; rowStart < numberRecords; rowStart += QUERY_TILE) {
+			int rowEnd = Math.min(numberRecords, rowStart + QUERY_TILE);
+
+			for (int tileStart = rowStart; tileStart < numberRecords; tileStart += tileRecords) {
+				int tileEnd = Math.min(numberRecords, tileStart + tileRecords);
+
+				for (int i = rowStart; i < rowEnd; i++) {
+					NeighborHeap heap = heaps[i];
+					double[] row = rows[i];
+
+					// pair is dropped only if neither record could keep it
+					for (int j = Math.max(i + 1, tileStart); j < tileEnd; j++) {
+						double worst = Math.max(heap.worst(), heaps[j].worst());
+						double d = metric.rank(row, rows[j], 0, numberAttributes, worst);
+						if (d <= worst) {
+							heap.offer(d, j);
+							heaps[j].offer(d, i);
+						}
+					}
+				}
+			}
+		}
+
+		for (int i = 0; i < numberRecords; i++)
+			drain(heaps[i], distance[i], id[i]);
+
+		return count;
+	}
+
+	/***************************************************************************************************/
+
+	// Method drains heap of ranking keys into given arrays as distances
+	private void drain(NeighborHeap heap, double[] distance, int[] id) {
+		int count = heap.drain(distance, id);
+		for (int i = 0; i < count; i++)
+			distance[i] = metric.distance(distance[i]);
+	}
+
+}
@@ -0,0 +1,106 @@
+package First;
+
+// Training records of a nearest neighbor classifier kept in primitive
+// arrays: attributes row-major in one double array and classes in one int
+// array. A scan over all records is a sequential walk over contiguous
+// memory and no per-record objects are allocated. A column-major copy is
+// made on request for the block distance kernels and not kept by the store.
+
+public class TrainingStore {
+
+	/***************************************************************************************************/
+
+	private double[] attributes; // attributes of all records, row-major
+	private int[] classNames; // class of each record
+	private int numberAttributes; // number of attributes per record
+	private int size; // number of records added
+
+	/***************************************************************************************************/
+
+	// Constructor of store with room for given number of records
+	public TrainingStore(int numberRecords, int numberAttributes) {
+		this.attributes = new double[numberRecords * numberAttributes];
+		this.classNames = new int[numberRecords];
+		this.numberAttributes = numberAttributes;
+		this.size = 0;
+	}
+
+	/***************************************************************************************************/
+
+	// Method appends a record
+	public void add(double[] attributeArray, int className) {
+		System.arraycopy(attributeArray, 0, attributes, size * numberAttributes, numberAttributes);
+		classNames[size] = className;
+		size++;
+	}
+
+	/***************************************************************************************************/
+
+	// Method fills empty store with all records of a binary dataset, a whole
+	// attribute column at a time
+	public void load(BinaryDataset dataset) {
+		int numberRecords = dataset.getNumberRecords();
+		double[] column = new double[numberRecords];
+
+		for (int j = 0; j < numberAttributes; j++) {
+			dataset.getColumn(j, column);
+			for (int i = 0, offset = j; i < numberRecords; i++, offset += numberAttributes)
+				attributes[offset] = column[i];
+		}
+
+		dataset.getClassNames(classNames);
+		size = numberRecords;
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns number of records
+	public int size() {
+		return size;
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns number of attributes per record
+	public int getNumberAttributes() {
+		return numberAttributes;
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns backing attribute array, record i starts at offset
+	// i * numberAttributes
+	public double[] getAttributes() {
+		return attributes;
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns class of record
+	public int getClassName(int record) {
+		return classNames[record];
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns a copy of the attributes of record
+	public double[] getRow(int record) {
+		double[] row = new double[numberAttributes];
+		System.arraycopy(attributes, record * numberAttributes, row, 0, numberAttributes);
+		return row;
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns a column-major copy of the attributes, attribute j of
+	// record i at j * size() + i
+	public double[] toColumns() {
+		double[] columns = new double[size * numberAttributes];
+		for (int i = 0, offset = 0; i < size; i++)
+			for (int j = 0; j < numberAttributes; j++, offset++)
+				columns[j * size + i] = attributes[offset];
+
+		return columns;
+	}
+
+}
@@ -0,0 +1,49 @@
+package First;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorSpecies;
+
+// Block kernel on the incubating vector API (jdk.incubator.vector): one
+// lane per record, so a single instruction works on as many records as the
+// preferred vector holds. Multiply and add stay separate operations, not a
+// fused one, so the distances are bit for bit those of the scalar kernels.
+// Only loaded through DistanceKernel.blockKernel once the module is present.
+
+public class VectorBlockKernel implements BlockKernel {
+
+	/***************************************************************************************************/
+
+	private static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+	/***************************************************************************************************/
+
+	// Method writes squared distances from query to a block of records
+	public void squaredDistances(double[] query, double[] columns, int numberRecords, int numberAttributes,
+			int start, int end, double[] distance) {
+		int i = start;
+
+		// whole vectors of records
+		for (int bound = start + SPECIES.loopBound(end - start); i < bound; i += SPECIES.length()) {
+			DoubleVector sum = DoubleVector.zero(SPECIES);
+
+			for (int j = 0, column = 0; j < numberAttributes; j++, column += numberRecords) {
+				DoubleVector diff = DoubleVector.broadcast(SPECIES, query[j])
+						.sub(DoubleVector.fromArray(SPECIES, columns, column + i));
+				sum = sum.add(diff.mul(diff));
+			}
+
+			sum.intoArray(distance, i);
+		}
+
+		// records left over
+		for (; i < end; i++) {
+			double sum = 0;
+			for (int j = 0, column = 0; j < numberAttributes; j++, column += numberRecords) {
+				double diff = query[j] - columns[column + i];
+				sum = sum + diff * diff;
+			}
+			distance[i] = sum;
+		}
+	}
+
+}
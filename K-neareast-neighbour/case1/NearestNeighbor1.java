@@ -27,6 +27,8 @@ public class NearestNeighbor1 {
 	private int numberClasses; // number of classes
 	private int numberNeighbors; // number of nearest neighbors
 	private String majorityRule; // majority rule used
+	private DatasetSchema schema; // converts labels to numbers
+	private String selectionMode; // neighbor selection: auto, heap, quickselect
 
 	/***************************************************************************************************/
 
@@ -38,6 +40,32 @@ public class NearestNeighbor1 {
 		numberClasses = 0;
 		numberNeighbors = 0; // nearest neighbors, majority rule
 		majorityRule = null;
+		schema = defaultSchema(); // application schema
+		selectionMode = "auto"; // pick heap or quickselect by k/n
+	}
+
+	/***************************************************************************************************/
+
+	// Method to reset schema, e.g. one learned from a training file by
+	// DatasetSchema.learn. Records are converted by the schema when loaded,
+	// so it cannot change afterwards
+	public void setSchema(DatasetSchema schema) {
+		if (records != null)
+			throw new IllegalStateException("Error: schema must be set before training data is loaded.");
+
+		this.schema = schema;
+	}
+
+	/***************************************************************************************************/
+
+	// Method to reset neighbor selection mode: auto, heap, quickselect
+	public void setSelectionMode(String mode) {
+
+		if (mode.equals("heap") || mode.equals("quickselect"))
+			selectionMode = mode;
+		// in case of mis-input
+		else
+			selectionMode = "auto";
 	}
 
 	/***************************************************************************************************/
@@ -63,7 +91,7 @@ public class NearestNeighbor1 {
 
 	// Method loads training records from training file
 	public void loadTrainingData(String trainingFile) throws IOException {
-		Scanner inFile = new Scanner(new File(trainingFile));
+		DataTokenizer inFile = new DataTokenizer(trainingFile);
 
 		// read number of records, attributes, classes
 		numberRecords = inFile.nextInt();
@@ -84,8 +112,7 @@ public class NearestNeighbor1 {
 
 			// read attributes and convert them to numerical form
 			for (int j = 0; j < numberAttributes; j++) {
-				String label = inFile.next();
-				attributeArray[j] = convert(label, j + 1);
+				attributeArray[j] = readAttribute(inFile, j + 1);
 			}
 
 			// read class and convert it to numerical form
@@ -104,10 +131,65 @@ public class NearestNeighbor1 {
 
 	/***************************************************************************************************/
 
+	// Method loads training records from binary dataset file made from a
+	// training file by saveBinaryData or DatasetConverter
+	public void loadBinaryData(String binaryFile) throws IOException {
+		BinaryDataset dataset = BinaryDataset.openDoubles(binaryFile);
+
+		// read number of records, attributes, classes
+		numberRecords = dataset.getNumberRecords();
+		numberAttributes = dataset.getNumberAttributes();
+		numberClasses = dataset.getNumberClasses();
+
+		// read neighbors, majority rule
+		numberNeighbors = dataset.getNumberNeighbors();
+		majorityRule = dataset.getMajorityRule();
+
+		// empty list of records
+		records = new ArrayList<Record>();
+
+		// attributes are already in numerical form, copied a whole column at a time
+		double[][] attributeArrays = new double[numberRecords][numberAttributes];
+		double[] column = new double[numberRecords];
+		for (int j = 0; j < numberAttributes; j++) {
+			dataset.getColumn(j, column);
+			for (int i = 0; i < numberRecords; i++)
+				attributeArrays[i][j] = column[i];
+		}
+
+		int[] classNames = new int[numberRecords];
+		dataset.getClassNames(classNames);
+
+		// for each record
+		for (int i = 0; i < numberRecords; i++)
+			records.add(new Record(attributeArrays[i], classNames[i]));
+
+		dataset.close();
+	}
+
+	/***************************************************************************************************/
+
+	// Method saves training records as binary dataset file
+	public void saveBinaryData(String binaryFile) throws IOException {
+		double[][] columns = new double[numberAttributes][numberRecords];
+		int[] classes = new int[numberRecords];
+
+		// split records into attribute columns
+		for (int i = 0; i < numberRecords; i++) {
+			for (int j = 0; j < numberAttributes; j++)
+				columns[j][i] = records.get(i).attributes[j];
+			classes[i] = records.get(i).className;
+		}
+
+		BinaryDataset.write(binaryFile, numberClasses, numberNeighbors, majorityRule, columns, classes);
+	}
+
+	/***************************************************************************************************/
+
 	// Method reads test records from test file and writes classes
 	// to classified file
 	public void classifyData(String testFile, String classifiedFile) throws IOException {
-		Scanner inFile = new Scanner(new File(testFile));
+		DataTokenizer inFile = new DataTokenizer(testFile);
 		PrintWriter outFile = new PrintWriter(new FileWriter(classifiedFile));
 
 		// read number of records
@@ -120,8 +202,7 @@ public class NearestNeighbor1 {
 
 			// read attributes and convert them to numerical form
 			for (int j = 0; j < numberAttributes; j++) {
-				String label = inFile.next();
-				attributeArray[j] = convert(label, j + 1);
+				attributeArray[j] = readAttribute(inFile, j + 1);
 			}
 
 			// find class of attribute
@@ -196,19 +277,8 @@ public class NearestNeighbor1 {
 
 	// Method finds the nearest neighbors
 	private void nearestNeighbor(double[] distance, int[] id) {
-		// sort the records by their distances and choose
-		// the closest neighbor
-		for (int i = 0; i < numberNeighbors; i++)
-			for (int j = i; j < numberRecords; j++)
-				if (distance[i] > distance[j]) {
-					double tempDistance = distance[i];
-					distance[i] = distance[j];
-					distance[j] = tempDistance;
-
-					int tempId = id[i];
-					id[i] = id[j];
-					id[j] = tempId;
-				}
+		// move the closest neighbors to the front in order
+		NeighborSelector.select(distance, id, numberRecords, numberNeighbors, selectionMode);
 	}
 
 	/***************************************************************************************************/
@@ -216,19 +286,8 @@ public class NearestNeighbor1 {
 	// Overload Method for leave one out validation to
 	// finds the nearest neighbors
 	private void nearestNeighbor(double[] distance, int[] id, int newNumberReocrds) {
-		// sort the records by their distances and choose
-		// the closest neighbor
-		for (int i = 0; i < numberNeighbors; i++)
-			for (int j = i; j < newNumberReocrds; j++)
-				if (distance[i] > distance[j]) {
-					double tempDistance = distance[i];
-					distance[i] = distance[j];
-					distance[j] = tempDistance;
-
-					int tempId = id[i];
-					id[i] = id[j];
-					id[j] = tempId;
-				}
+		// move the closest neighbors to the front in order
+		NeighborSelector.select(distance, id, newNumberReocrds, numberNeighbors, selectionMode);
 	}
 
 	/***************************************************************************************************/
@@ -369,7 +428,7 @@ public class NearestNeighbor1 {
 
 	// Method validates classifier using validation file and displays error rate
 	public void validate(String validationFile) throws IOException {
-		Scanner inFile = new Scanner(new File(validationFile));
+		DataTokenizer inFile = new DataTokenizer(validationFile);
 
 		// read number of records
 		int numberRecords = inFile.nextInt();
@@ -383,8 +442,7 @@ public class NearestNeighbor1 {
 
 			// read attributes
 			for (int j = 0; j < numberAttributes; j++) {
-				String label = inFile.next();
-				attributeArray[j] = convert(label, j + 1);
+				attributeArray[j] = readAttribute(inFile, j + 1);
 			}
 
 			// read actual class
@@ -408,74 +466,58 @@ public class NearestNeighbor1 {
 
 	/***************************************************************************************************/
 
-	// Method converts attribute value to numerical values. Hard coded for
-	// specific application
+	// Method declares how labels are converted to numerical values. Hard coded
+	// for specific application
 	// example: 30 3.36 C bad
-	// score: 0-100
-	// gpa: 0-4
-	// grade: A, B, C
-	// class: good, average, bad
-	private double convert(String label, int column) {
+	private static DatasetSchema defaultSchema() {
+		DatasetSchema schema = new DatasetSchema(3);
 
-		double value;
+		// score: 0-100 to [0, 1] range
+		schema.setNumeric(1, 0, 100);
+		// gpa: scaled by 100 as before
+		schema.setNumeric(2, 0, 100);
+		// grade: A, B, C to [0, 1] range
+		schema.setCategorical(3, new String[] { "A", "B" }, new double[] { 1.0, 0.667 }, 0.333);
 
-		// convert score attribute to 0/1
-		if (column == 1) {
-			value = Double.valueOf(label);
-			value = value / 100;
-		}
-		// convert gpa attribute to [0, 1] range
-		else if (column == 2) {
-			value = Double.valueOf(label);
-			value = value / 100;
-		}
-		// convert grade attribute to [0, 1] range
-		else {
-			if (label.equals("A"))
-				value = 1.0;
-			else if (label.equals("B"))
-				value = 0.667;
-			else
-				value = 0.333;
-		}
+		// class labels, unknown label is the last class
+		schema.setClasses(new String[] { "good", "average", "bad" });
 
-		return value;
+		return schema;
 	}
 
 	/***************************************************************************************************/
 
-	// Method converts class labels to integer values. Hard coded for specific
-	// application
-	private int convert(String label) {
-		int value;
+	// Method reads attribute of column from file, numbers of numeric columns
+	// are parsed straight from the bytes and labels go through the schema
+	private double readAttribute(DataTokenizer inFile, int column) throws IOException {
+		if (schema.isNumber(column))
+			return schema.encode(inFile.nextDouble(), column);
 
-		if (label.equals("good"))
-			value = 1;
-		else if (label.equals("average"))
-			value = 2;
-		else
-			value = 3;
+		return convert(inFile.next(), column);
+	}
 
-		return value;
+	/***************************************************************************************************/
+
+	// Method converts attribute value to numerical values using schema
+	private double convert(String label, int column) {
+		return schema.encode(label, column);
 	}
 
 	/***************************************************************************************************/
 
-	// Method converts integer values to class labels. Hard coded for specific
-	// application
-	private String convert(int value) {
-		String label;
+	// Method converts class labels to integer values using schema
+	private int convert(String label) {
+		return schema.encodeClass(label);
+	}
 
-		if (value == 1)
-			label = "good";
-		else if (value == 2)
-			label = "average";
-		else
-			label = "bad";
+	/***************************************************************************************************/
 
-		return label;
+	// Method converts integer values to class labels using schema
+	private String convert(int value) {
+		return schema.decodeClass(value);
 	}
 
+
 	/***************************************************************************************************/
 
 	// Method finds distance between two records. Hard coded for specific
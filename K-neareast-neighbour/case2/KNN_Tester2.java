@@ -6,28 +6,32 @@ public class KNN_Tester2 {
 
 	public static void main(String[] args) throws IOException {
 
+		// construct nearest neighbor classifier and load training data once
+		NearestNeighbor2 classifier = new NearestNeighbor2();
+		classifier.loadTrainingData("trainingFile_KNN2");
+
+		// error rates of every k up to 49: [0] weighted, [1] unweighted
+		String[] rules = { "weighted", "unweighted" };
+		double[][] validationErrorRates = classifier.sweepLeaveOneOut("trainingFile_KNN2", 49);
+		double[][] trainingErrorRates = classifier.sweepTrainingError("trainingFile_KNN2", 49);
+
 		String bestRule = "";
 		int bestK = 0;
 		double bestErrorRate = 999.9;
 		double trainingErrorRate = 999.9;
 		for (int i = 1; i < 50; i++) {
-
-			double errorRate;
-
-			errorRate = testCase(i, "weighted")[0];
-			if (errorRate < bestErrorRate) {
-				bestErrorRate = errorRate;
-				bestRule = "weighted";
-				bestK = i;
-				trainingErrorRate = testCase(i, "weighted")[1];
-			}
-
-			errorRate = testCase(i, "unweighted")[0];
-			if (errorRate < bestErrorRate) {
-				bestErrorRate = errorRate;
-				bestRule = "unweighted";
-				bestK = i;
-				trainingErrorRate = testCase(i, "unweighted")[1];
+			for (int r = 0; r < rules.length; r++) {
+
+				System.out.println("k = " + i + "\t" + rules[r] + "\tTraining Error: " + trainingErrorRates[r][i]
+						+ "\tLeave One Out Validation Error: " + validationErrorRates[r][i] + " percent error");
+
+				double errorRate = validationErrorRates[r][i];
+				if (errorRate < bestErrorRate) {
+					bestErrorRate = errorRate;
+					bestRule = rules[r];
+					bestK = i;
+					trainingErrorRate = trainingErrorRates[r][i];
+				}
 			}
 		}
 
@@ -1,11 +1,9 @@
 package First;
 
-import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.ArrayList;
-import java.util.Scanner;
 
 //Application Scenario: bank wants to classify and make predictions about its loan applicants
 //Attributes: credit score, income, sex, age, and marital status
@@ -35,6 +33,19 @@ public class NearestNeighbor2 {
 	private int numberClasses; // number of classes
 	private int numberNeighbors; // number of nearest neighbors
 	private String majorityRule; // majority rule used
+	private DatasetSchema schema; // converts labels to numbers
+	private String selectionMode; // neighbor selection: auto, heap, quickselect
+	private String leaveOneOutMode; // leave one out: pairwise, copy
+	private int[][] neighborLists; // nearest other records of each record
+	private double[][] neighborDistances; // distances to those records
+	private int neighborListSize; // number of neighbors in each list
+	private int parallelism; // number of threads running cross validation
+	private TiledNeighborSearch search; // tiled search over records, null until used
+	private String metricName; // distance metric: mixed, euclidean, gower, ...
+	private DistanceMetric metric; // distance metric for loaded records
+
+	// number of test records classified together by classifyData, validate
+	private static final int QUERY_BATCH = 1024;
 
 	/***************************************************************************************************/
 
@@ -46,6 +57,91 @@ public class NearestNeighbor2 {
 		numberClasses = 0;
 		numberNeighbors = 0; // nearest neighbors, majority rule
 		majorityRule = null;
+		schema = defaultSchema(); // application schema
+		selectionMode = "auto"; // pick heap or quickselect by k/n
+		leaveOneOutMode = "pairwise"; // neighbor lists computed once
+		neighborLists = null;
+		neighborDistances = null;
+		neighborListSize = 0;
+		parallelism = 1; // validate on calling thread
+		search = null;
+		metricName = "mixed"; // euclidean and matching coefficient
+		metric = null;
+	}
+
+	/***************************************************************************************************/
+
+	// Method to reset schema, e.g. one learned from a training file by
+	// DatasetSchema.learn. Records and metric are derived from the schema
+	// when loaded, so it cannot change afterwards
+	public void setSchema(DatasetSchema schema) {
+		if (records != null)
+			throw new IllegalStateException("Error: schema must be set before training data is loaded.");
+
+		this.schema = schema;
+	}
+
+	/***************************************************************************************************/
+
+	// Method to reset neighbor selection mode: auto, heap, quickselect
+	public void setSelectionMode(String mode) {
+
+		if (mode.equals("heap") || mode.equals("quickselect"))
+			selectionMode = mode;
+		// in case of mis-input
+		else
+			selectionMode = "auto";
+	}
+
+	/***************************************************************************************************/
+
+	// Method to reset leave one out mode: pairwise (neighbor lists of all
+	// records computed once), copy (copy training set for every record)
+	public void setLeaveOneOutMode(String mode) {
+
+		if (mode.equals("copy"))
+			leaveOneOutMode = "copy";
+		// in case of mis-input
+		else
+			leaveOneOutMode = "pairwise";
+	}
+
+	/***************************************************************************************************/
+
+	// Method to reset number of threads used by crossValidate, 1 runs the
+	// folds on the calling thread
+	public void setParallelism(int threads) {
+
+		if (threads > 1)
+			parallelism = threads;
+		// in case of mis-input
+		else
+			parallelism = 1;
+	}
+
+	/***************************************************************************************************/
+
+	// Method to reset distance metric: mixed (euclidean over credit, income
+	// and age, matching coefficient for sex and marital status), euclidean,
+	// squared, manhattan, chebyshev, hamming, gower (see DistanceMetric)
+	public void setDistanceMetric(String name) {
+		metricName = name;
+
+		// neighbor lists and search of loaded records follow new metric
+		if (records != null)
+			prepareMetric();
+	}
+
+	/***************************************************************************************************/
+
+	// Method creates metric for loaded records, categorical columns come from
+	// the schema, and drops what was found under the previous metric
+	private void prepareMetric() {
+		metric = DistanceMetric.forName(metricName, schema.categoricalColumns(numberAttributes));
+		neighborLists = null;
+		neighborDistances = null;
+		neighborListSize = 0;
+		search = null;
 	}
 
 	/***************************************************************************************************/
@@ -71,7 +167,7 @@ public class NearestNeighbor2 {
 
 	// Method loads training records from training file
 	public void loadTrainingData(String trainingFile) throws IOException {
-		Scanner inFile = new Scanner(new File(trainingFile));
+		DataTokenizer inFile = new DataTokenizer(trainingFile);
 
 		// read number of records, attributes, classes
 		numberRecords = inFile.nextInt();
@@ -85,6 +181,12 @@ public class NearestNeighbor2 {
 		// empty list of records
 		records = new ArrayList<Record>();
 
+		// neighbor lists and search belong to previous records
+		neighborLists = null;
+		neighborDistances = null;
+		neighborListSize = 0;
+		search = null;
+
 		// for each record
 		for (int i = 0; i < numberRecords; i++) {
 			// create attribute array
@@ -92,8 +194,7 @@ public class NearestNeighbor2 {
 
 			// read attributes and convert them to numerical form
 			for (int j = 0; j < numberAttributes; j++) {
-				String label = inFile.next();
-				attributeArray[j] = convert(label, j + 1);
+				attributeArray[j] = readAttribute(inFile, j + 1);
 			}
 
 			// read class and convert it to numerical form
@@ -108,38 +209,110 @@ public class NearestNeighbor2 {
 		}
 
 		inFile.close();
+
+		prepareMetric();
+	}
+
+	/***************************************************************************************************/
+
+	// Method loads training records from binary dataset file made from a
+	// training file by saveBinaryData or DatasetConverter
+	public void loadBinaryData(String binaryFile) throws IOException {
+		BinaryDataset dataset = BinaryDataset.openDoubles(binaryFile);
+
+		// read number of records, attributes, classes
+		numberRecords = dataset.getNumberRecords();
+		numberAttributes = dataset.getNumberAttributes();
+		numberClasses = dataset.getNumberClasses();
+
+		// read neighbors, majority rule
+		numberNeighbors = dataset.getNumberNeighbors();
+		majorityRule = dataset.getMajorityRule();
+
+		// empty list of records
+		records = new ArrayList<Record>();
+
+		// neighbor lists and search belong to previous records
+		neighborLists = null;
+		neighborDistances = null;
+		neighborListSize = 0;
+		search = null;
+
+		// attributes are already in numerical form, copied a whole column at a time
+		double[][] attributeArrays = new double[numberRecords][numberAttributes];
+		double[] column = new double[numberRecords];
+		for (int j = 0; j < numberAttributes; j++) {
+			dataset.getColumn(j, column);
+			for (int i = 0; i < numberRecords; i++)
+				attributeArrays[i][j] = column[i];
+		}
+
+		int[] classNames = new int[numberRecords];
+		dataset.getClassNames(classNames);
+
+		// for each record
+		for (int i = 0; i < numberRecords; i++)
+			records.add(new Record(attributeArrays[i], classNames[i]));
+
+		dataset.close();
+
+		prepareMetric();
+	}
+
+	/***************************************************************************************************/
+
+	// Method saves training records as binary dataset file
+	public void saveBinaryData(String binaryFile) throws IOException {
+		double[][] columns = new double[numberAttributes][numberRecords];
+		int[] classes = new int[numberRecords];
+
+		// split records into attribute columns
+		for (int i = 0; i < numberRecords; i++) {
+			for (int j = 0; j < numberAttributes; j++)
+				columns[j][i] = records.get(i).attributes[j];
+			classes[i] = records.get(i).className;
+		}
+
+		BinaryDataset.write(binaryFile, numberClasses, numberNeighbors, majorityRule, columns, classes);
 	}
 
 	/***************************************************************************************************/
 
 	// Method reads test records from test file and writes classes
-	// to classified file
+	// to classified file. Records are classified in batches scored together
+	// against tiles of the training records
 	public void classifyData(String testFile, String classifiedFile) throws IOException {
-		Scanner inFile = new Scanner(new File(testFile));
+		DataTokenizer inFile = new DataTokenizer(testFile);
 		PrintWriter outFile = new PrintWriter(new FileWriter(classifiedFile));
 
 		// read number of records
 		int numberRecords = inFile.nextInt();
 
-		// for each record
-		for (int i = 0; i < numberRecords; i++) {
-			// create attribute array
-			double[] attributeArray = new double[numberAttributes];
+		// for each batch of records
+		for (int start = 0; start < numberRecords; start += QUERY_BATCH) {
+			double[][] batch = new double[Math.min(QUERY_BATCH, numberRecords - start)][];
 
-			// read attributes and convert them to numerical form
-			for (int j = 0; j < numberAttributes; j++) {
-				String label = inFile.next();
-				attributeArray[j] = convert(label, j + 1);
-			}
+			for (int i = 0; i < batch.length; i++) {
+				// create attribute array
+				double[] attributeArray = new double[numberAttributes];
 
-			// find class of attribute
-			int className = classify(attributeArray);
+				// read attributes and convert them to numerical form
+				for (int j = 0; j < numberAttributes; j++) {
+					attributeArray[j] = readAttribute(inFile, j + 1);
+				}
 
-			// find class label and write to output file
-			String label = convert(className);
-			System.out.println(label);
-			outFile.println(label);
+				batch[i] = attributeArray;
+			}
+
+			// find classes of batch
+			int[] classes = classify(batch);
 
+			// find class labels and write to output file
+			for (int i = 0; i < batch.length; i++) {
+				String label = convert(classes[i]);
+				System.out.println(label);
+				outFile.println(label);
+			}
 		}
 
 		System.out.println();
@@ -150,26 +323,50 @@ public class NearestNeighbor2 {
 
 	/***************************************************************************************************/
 
-	// Method finds class of given attributes
-	private int classify(double[] attributes) {
+	// Method finds classes of a batch of attributes, the batch is scored
+	// against tiles of the training records at once
+	private int[] classify(double[][] batch) {
+		return classify(batch, search(), null);
+	}
 
-		double[] distance = new double[numberRecords];
-		int[] id = new int[numberRecords];
+	/***************************************************************************************************/
 
-		// find distance between attributes and all records
-		for (int i = 0; i < numberRecords; i++) {
-			distance[i] = distance(attributes, records.get(i).attributes);
-			id[i] = i;
+	// Overload Method finds classes of a batch of attributes with a search
+	// over the given training records only, all records if null
+	private int[] classify(double[][] batch, TiledNeighborSearch search, int[] training) {
+		int size = training == null ? numberRecords : training.length;
+		double[][] distance = new double[batch.length][Math.min(numberNeighbors, size)];
+		int[][] id = new int[batch.length][Math.min(numberNeighbors, size)];
+
+		int count = search.search(batch, numberNeighbors, distance, id);
+
+		int[] classes = new int[batch.length];
+		for (int i = 0; i < batch.length; i++) {
+			// ids of the search are positions in the training records
+			if (training != null)
+				for (int j = 0; j < count; j++)
+					id[i][j] = training[id[i][j]];
+
+			classes[i] = majority(id[i], distance[i], count);
 		}
 
-		// find the nearest neighbors
-		nearestNeighbor(distance, id);
+		return classes;
+	}
 
-		// find majority class of neighbors
-		int className = majority(id, attributes);
+	/***************************************************************************************************/
 
-		// return class
-		return className;
+	// Method returns tiled search over the training records, built on first
+	// use with the distance metric
+	private TiledNeighborSearch search() {
+		if (search == null) {
+			double[][] rows = new double[numberRecords][];
+			for (int i = 0; i < numberRecords; i++)
+				rows[i] = records.get(i).attributes;
+
+			search = new TiledNeighborSearch(rows, numberAttributes, metric);
+		}
+
+		return search;
 	}
 
 	/***************************************************************************************************/
@@ -202,47 +399,18 @@ public class NearestNeighbor2 {
 
 	/***************************************************************************************************/
 
-	// Method finds the nearest neighbors
-	private void nearestNeighbor(double[] distance, int[] id) {
-		// sort the records by their distances and choose
-		// the closest neighbor
-		for (int i = 0; i < numberNeighbors; i++)
-			for (int j = i; j < numberRecords; j++)
-				if (distance[i] > distance[j]) {
-					double tempDistance = distance[i];
-					distance[i] = distance[j];
-					distance[j] = tempDistance;
-
-					int tempId = id[i];
-					id[i] = id[j];
-					id[j] = tempId;
-				}
-	}
-
-	/***************************************************************************************************/
-
 	// Overload Method for leave one out validation to
 	// finds the nearest neighbors
 	private void nearestNeighbor(double[] distance, int[] id, int newNumberReocrds) {
-		// sort the records by their distances and choose
-		// the closest neighbor
-		for (int i = 0; i < numberNeighbors; i++)
-			for (int j = i; j < newNumberReocrds; j++)
-				if (distance[i] > distance[j]) {
-					double tempDistance = distance[i];
-					distance[i] = distance[j];
-					distance[j] = tempDistance;
-
-					int tempId = id[i];
-					id[i] = id[j];
-					id[j] = tempId;
-				}
+		// move the closest neighbors to the front in order
+		NeighborSelector.select(distance, id, newNumberReocrds, numberNeighbors, selectionMode);
 	}
 
 	/***************************************************************************************************/
 
-	// Method finds the majority class of nearest neighbors
-	private int majority(int[] id, double[] attributes) {
+	// Overload Method to find the majority class of the first count nearest
+	// neighbors from their distances
+	private int majority(int[] id, double[] distance, int count) {
 		double[] frequency = new double[numberClasses];
 
 		// class frequencies are zero initially
@@ -252,14 +420,14 @@ public class NearestNeighbor2 {
 		// if unweighed majority rule is used
 		if (majorityRule.equals("unweighted")) {
 			// each neighbor contributes 1 to its class
-			for (int i = 0; i < numberNeighbors; i++)
+			for (int i = 0; i < count; i++)
 				frequency[records.get(id[i]).className - 1] += 1;
 		}
 		// if weighted majority rule is used
 		else {
 			// each neighbor contributes 1/distance to its class
-			for (int i = 0; i < numberNeighbors; i++) {
-				double d = distance(records.get(id[i]).attributes, attributes);
+			for (int i = 0; i < count; i++) {
+				double d = distance[i];
 				if (d == 0)
 					frequency[records.get(id[i]).className - 1] += 1 / (d + 0.001);
 				else
@@ -323,14 +491,16 @@ public class NearestNeighbor2 {
 		if (records == null)
 			loadTrainingData(trainingFile);
 
+		// classify all training records together
+		double[][] batch = new double[numberRecords][];
+		for (int i = 0; i < numberRecords; i++)
+			batch[i] = records.get(i).attributes;
+		int[] predictedClasses = classify(batch);
+
 		// count the training error frequency
 		int numberErrors = 0;
 		for (int i = 0; i < numberRecords; i++) {
-			// find class of attribute
-			int predictedClass = classify(records.get(i).attributes);
-
-			// find class label and write to output file
-			if (predictedClass != records.get(i).className)
+			if (predictedClasses[i] != records.get(i).className)
 				numberErrors++;
 		}
 
@@ -352,20 +522,38 @@ public class NearestNeighbor2 {
 		// initially zero errors
 		int numberErrors = 0;
 
-		// for each records
-		for (int i = 0; i < numberRecords; i++) {
+		// classify each record from its precomputed neighbor list
+		if (leaveOneOutMode.equals("pairwise")) {
+			// lists of a larger k still hold the neighbors for this k
+			if (neighborLists == null || neighborListSize < Math.min(numberNeighbors, numberRecords - 1))
+				computeNeighborLists(numberNeighbors);
 
-			Record theOne = records.get(i);
+			for (int i = 0; i < numberRecords; i++) {
+				int predictedClass = majority(neighborLists[i], neighborDistances[i],
+						Math.min(numberNeighbors, neighborListSize));
 
-			// shallow copy the training data
-			ArrayList<Record> cutOutRecords = new ArrayList<>(records);
-			cutOutRecords.remove(i);
+				if (predictedClass != records.get(i).className)
+					numberErrors++;
+			}
+		}
 
-			int predictedClass = classify(theOne.attributes, cutOutRecords);
+		// classify each record against a copy of the other records
+		else {
+			// for each records
+			for (int i = 0; i < numberRecords; i++) {
 
-			if (predictedClass != theOne.className)
-				numberErrors++;
+				Record theOne = records.get(i);
+
+				// shallow copy the training data
+				ArrayList<Record> cutOutRecords = new ArrayList<>(records);
+				cutOutRecords.remove(i);
+
+				int predictedClass = classify(theOne.attributes, cutOutRecords);
 
+				if (predictedClass != theOne.className)
+					numberErrors++;
+
+			}
 		}
 
 		// find and print error rate
@@ -379,9 +567,173 @@ public class NearestNeighbor2 {
 
 	/***************************************************************************************************/
 
+	// Method k-fold cross validates classifier, mode is plain or stratified.
+	// Displays error rate of every fold and of all folds, and returns the
+	// error rate of all folds
+	public double crossValidate(String trainingFile, int numberFolds, String mode) throws IOException {
+
+		if (records == null)
+			loadTrainingData(trainingFile);
+
+		CrossValidation validation = new CrossValidation(numberFolds, mode);
+		validation.setParallelism(parallelism);
+
+		// each fold is classified against the records of the other folds
+		validation.run(new CrossValidation.Model() {
+			public int getNumberRecords() {
+				return numberRecords;
+			}
+
+			public int getClassName(int record) {
+				return records.get(record).className;
+			}
+
+			public int[] classifyFold(int[] training, int[] test) {
+				// tiled search over the training folds, records are not copied
+				double[][] rows = new double[training.length][];
+				for (int i = 0; i < training.length; i++)
+					rows[i] = records.get(training[i]).attributes;
+
+				double[][] batch = new double[test.length][];
+				for (int i = 0; i < test.length; i++)
+					batch[i] = records.get(test[i]).attributes;
+
+				return classify(batch, new TiledNeighborSearch(rows, numberAttributes, metric), training);
+			}
+		});
+
+		validation.printResults();
+
+		return validation.getErrorRate();
+	}
+
+	/***************************************************************************************************/
+
+	// Method finds for every training record its nearest neighbors among the
+	// other records, up to given number of neighbors. Each pair distance is
+	// computed once and offered to the lists of both records, tile by tile,
+	// no copy of the training set is made
+	private void computeNeighborLists(int maxNeighbors) {
+		neighborListSize = Math.min(maxNeighbors, numberRecords - 1);
+
+		// ids of nearest neighbors in ascending order of distance
+		neighborLists = new int[numberRecords][neighborListSize];
+		neighborDistances = new double[numberRecords][neighborListSize];
+		search().searchOthers(maxNeighbors, neighborDistances, neighborLists);
+	}
+
+	/***************************************************************************************************/
+
+	// Method computes leave one out error rates for every k up to given
+	// maximum and both majority rules from one neighbor ordering per record
+	/*
+	 * @output: [0][k] weighted error rate, [1][k] unweighted error rate
+	 */
+	public double[][] sweepLeaveOneOut(String trainingFile, int maxNeighbors) throws IOException {
+
+		if (records == null)
+			loadTrainingData(trainingFile);
+
+		if (neighborLists == null || neighborListSize < Math.min(maxNeighbors, numberRecords - 1))
+			computeNeighborLists(maxNeighbors);
+
+		// count errors of every k and rule
+		int[][] errors = new int[2][maxNeighbors + 1];
+		for (int i = 0; i < numberRecords; i++)
+			scoreNeighbors(neighborLists[i], neighborDistances[i], Math.min(maxNeighbors, neighborListSize),
+					records.get(i).className, errors);
+
+		return errorRates(errors);
+	}
+
+	/***************************************************************************************************/
+
+	// Method computes training error rates for every k up to given maximum
+	// and both majority rules from one neighbor ordering per record
+	/*
+	 * @output: [0][k] weighted error rate, [1][k] unweighted error rate
+	 */
+	public double[][] sweepTrainingError(String trainingFile, int maxNeighbors) throws IOException {
+
+		if (records == null)
+			loadTrainingData(trainingFile);
+
+		// neighbors of all records up to the largest k, found together
+		double[][] batch = new double[numberRecords][];
+		for (int i = 0; i < numberRecords; i++)
+			batch[i] = records.get(i).attributes;
+
+		double[][] distance = new double[numberRecords][Math.min(maxNeighbors, numberRecords)];
+		int[][] id = new int[numberRecords][Math.min(maxNeighbors, numberRecords)];
+		int count = search().search(batch, maxNeighbors, distance, id);
+
+		// count errors of every k and rule
+		int[][] errors = new int[2][maxNeighbors + 1];
+		for (int i = 0; i < numberRecords; i++)
+			scoreNeighbors(id[i], distance[i], count, records.get(i).className, errors);
+
+		return errorRates(errors);
+	}
+
+	/***************************************************************************************************/
+
+	// Method votes with a sorted neighbor list one neighbor at a time and
+	// counts an error for every k and rule whose majority class is wrong
+	private void scoreNeighbors(int[] id, double[] distance, int count, int actualClass, int[][] errors) {
+		double[] weighted = new double[numberClasses];
+		double[] unweighted = new double[numberClasses];
+		int maxNeighbors = errors[0].length - 1;
+
+		for (int k = 1; k <= maxNeighbors; k++) {
+			// k-th neighbor joins the vote, a shorter list keeps its last vote
+			if (k <= count) {
+				int className = records.get(id[k - 1]).className;
+				double d = distance[k - 1];
+
+				unweighted[className - 1] += 1;
+				if (d == 0)
+					weighted[className - 1] += 1 / (d + 0.001);
+				else
+					weighted[className - 1] += 1 / d;
+			}
+
+			if (maxIndex(weighted) + 1 != actualClass)
+				errors[0][k]++;
+			if (maxIndex(unweighted) + 1 != actualClass)
+				errors[1][k]++;
+		}
+	}
+
+	/***************************************************************************************************/
+
+	// Method finds index of largest frequency, first one on ties
+	private int maxIndex(double[] frequency) {
+		int maxIndex = 0;
+		for (int i = 0; i < frequency.length; i++)
+			if (frequency[i] > frequency[maxIndex])
+				maxIndex = i;
+
+		return maxIndex;
+	}
+
+	/***************************************************************************************************/
+
+	// Method converts error counts to percent error rates
+	private double[][] errorRates(int[][] errors) {
+		double[][] errorRates = new double[errors.length][errors[0].length];
+
+		for (int i = 0; i < errors.length; i++)
+			for (int k = 1; k < errors[i].length; k++)
+				errorRates[i][k] = 100.0 * errors[i][k] / numberRecords;
+
+		return errorRates;
+	}
+
+	/***************************************************************************************************/
+
 	// Method validates classifier using validation file and displays error rate
 	public void validate(String validationFile) throws IOException {
-		Scanner inFile = new Scanner(new File(validationFile));
+		DataTokenizer inFile = new DataTokenizer(validationFile);
 
 		// read number of records
 		int numberRecords = inFile.nextInt();
@@ -389,26 +741,33 @@ public class NearestNeighbor2 {
 		// initially zero errors
 		int numberErrors = 0;
 
-		// for each records
-		for (int i = 0; i < numberRecords; i++) {
-			double[] attributeArray = new double[numberAttributes];
+		// for each batch of records
+		for (int start = 0; start < numberRecords; start += QUERY_BATCH) {
+			double[][] batch = new double[Math.min(QUERY_BATCH, numberRecords - start)][];
+			int[] actualClasses = new int[batch.length];
 
-			// read attributes
-			for (int j = 0; j < numberAttributes; j++) {
+			for (int i = 0; i < batch.length; i++) {
+				double[] attributeArray = new double[numberAttributes];
+
+				// read attributes
+				for (int j = 0; j < numberAttributes; j++) {
+					attributeArray[j] = readAttribute(inFile, j + 1);
+				}
+
+				// read actual class
 				String label = inFile.next();
-				attributeArray[j] = convert(label, j + 1);
-			}
+				actualClasses[i] = convert(label);
 
-			// read actual class
-			String label = inFile.next();
-			int actualClass = convert(label);
+				batch[i] = attributeArray;
+			}
 
-			// find class predicted by classifier
-			int predictedClass = classify(attributeArray);
+			// find classes predicted by classifier
+			int[] predictedClasses = classify(batch);
 
 			// error if predicted and actual classes do not match
-			if (predictedClass != actualClass)
-				numberErrors += 1;
+			for (int i = 0; i < batch.length; i++)
+				if (predictedClasses[i] != actualClasses[i])
+					numberErrors += 1;
 		}
 
 		// find and print error rate
@@ -420,116 +779,67 @@ public class NearestNeighbor2 {
 
 	/***************************************************************************************************/
 
-	// Method converts attribute value to numerical values. Hard coded for
-	// specific application
+	// Method declares how labels are converted to numerical values. Hard coded
+	// for specific application
 	// example: 720 87 77 male single low
-	// credit score: 500-900
-	// income: 30k-90k
-	// age: 30-80
-	// sex: male, female
-	// marital status: single, divorced, married
-	// class: low risk, medium risk, high risk, undetermined
-	private double convert(String label, int column) {
+	private static DatasetSchema defaultSchema() {
+		DatasetSchema schema = new DatasetSchema(5);
+
+		// credit score: 500-900 to [0, 1] range
+		schema.setNumeric(1, 500.0, 900.0);
+		// income: 30k-90k to [0, 1] range
+		schema.setNumeric(2, 30.0, 90.0);
+		// age: 30-80 to [0, 1] range
+		schema.setNumeric(3, 30.0, 80.0);
+		// sex: male 1, female 0
+		schema.setCategorical(4, new String[] { "male" }, new double[] { 1.0 }, 0.0);
+		// marital status: single 0, divorced 1, married 2
+		schema.setCategorical(5, new String[] { "single", "divorced" }, new double[] { 0.0, 1.0 }, 2.0);
+
+		// class labels, unknown label is the last class
+		schema.setClasses(new String[] { "low", "medium", "high", "undetermined" });
+
+		return schema;
+	}
 
-		double value;
+	/***************************************************************************************************/
 
-		// convert credit score(500-900) attribute to 0/1
-		if (column == 1) {
-			value = Double.valueOf(label);
-			value = (value - 500.0) / (900.0 - 500.0);
-		}
-		// convert income(30k-90k) attribute to [0, 1] range
-		else if (column == 2) {
-			value = Double.valueOf(label);
-			value = (value - 30.0) / (90.0 - 30.0);
-		}
-		//convert age(30-80) to [0, 1] range
-		else if(column == 3){
-			value = Double.valueOf(label);
-			value = (value - 30.0)/(80.0 - 30.0);
-		}
-		// convert sex(male, female) to 1, 0
-		else if(column == 4){
-			if (label.equals("male"))
-				value = 1.0;
-			else 
-				value = 0.0;
-		}
-		// convert marital(single, divorced, married) to 0, 1, 2
-		else{
-			if(label.equals("single"))
-				value = 0.0;
-			else if(label.equals("divorced"))
-				value = 1.0;
-			else
-				value = 2.0;
-		}
+	// Method reads attribute of column from file, numbers of numeric columns
+	// are parsed straight from the bytes and labels go through the schema
+	private double readAttribute(DataTokenizer inFile, int column) throws IOException {
+		if (schema.isNumber(column))
+			return schema.encode(inFile.nextDouble(), column);
 
-		return value;
+		return convert(inFile.next(), column);
 	}
 
 	/***************************************************************************************************/
 
-	// Method converts class labels to integer values. Hard coded for specific
-	// application
-	private int convert(String label) {
-		int value;
-
-		if (label.equals("low"))
-			value = 1;
-		else if (label.equals("medium"))
-			value = 2;
-		else if (label.equals("high"))
-			value = 3;
-		else
-			value = 4;
+	// Method converts attribute value to numerical values using schema
+	private double convert(String label, int column) {
+		return schema.encode(label, column);
+	}
 
-		return value;
+	/***************************************************************************************************/
+
+	// Method converts class labels to integer values using schema
+	private int convert(String label) {
+		return schema.encodeClass(label);
 	}
 
 	/***************************************************************************************************/
 
-	// Method converts integer values to class labels. Hard coded for specific
-	// application
+	// Method converts integer values to class labels using schema
 	private String convert(int value) {
-		String label;
-
-		if (value == 1)
-			label = "low";
-		else if (value == 2)
-			label = "medium";
-		else if (value == 3)
-			label = "high";
-		else
-			label = "undetermined";
-
-		return label;
+		return schema.decodeClass(value);
 	}
 
+
 	/***************************************************************************************************/
 
-	// Method finds distance between two records. Hard coded for specific
-	// application
+	// Method finds distance between two records under the distance metric
 	private double distance(double[] u, double[] v) {
-		
-		double distance = 0;
-		
-		//heterogeneous attributes in similarity
-		for (int i = 0; i < u.length; i++)
-			// attributes col == 1, 2, 3 => euclidean distance
-			if( i == 0 || i == 1 || i == 2)
-				distance = distance + (u[i] - v[i]) * (u[i] - v[i]);
-			// attributes col == 4, 5 => matching coefficent distance (0, 1)
-			else{
-				if(u[i] != v[i])
-					distance += 1.0;
-			}
-
-		distance = Math.sqrt(distance);
-		
-		
-		return distance;
-		
+		return metric.distance(metric.rank(u, v, 0, u.length, Double.POSITIVE_INFINITY));
 	}
 
 }
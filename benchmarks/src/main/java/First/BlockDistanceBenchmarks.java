@@ -0,0 +1,79 @@
+package First;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Squared distances from one query to a block of stored records of 5 to 256
+// attributes: row by row with DistanceKernel, and column by column with the
+// scalar and vector block kernels. The fork runs with the vector module.
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = { "--add-modules", "jdk.incubator.vector" })
+public class BlockDistanceBenchmarks {
+
+	/***************************************************************************************************/
+
+	private static final int NUMBER_RECORDS = 4096;
+
+	@Param({ "5", "32", "256" })
+	public int attributes;
+
+	@Param({ "row", "scalar", "vector" })
+	public String kernelMode;
+
+	private BlockKernel kernel; // block kernel, null for row mode
+	private double[] query; // query record
+	private double[] data; // stored records, row-major
+	private double[] columns; // stored records, column-major
+	private double[] distance; // squared distances found
+
+	/***************************************************************************************************/
+
+	@Setup
+	public void setup() {
+		if (kernelMode.equals("vector") && !DistanceKernel.isVectorAvailable())
+			throw new IllegalStateException("jdk.incubator.vector module is not present");
+
+		kernel = kernelMode.equals("row") ? null : DistanceKernel.blockKernel(kernelMode);
+
+		double[][] records = SyntheticData.knnQueries(NUMBER_RECORDS + 1, attributes);
+		query = records[NUMBER_RECORDS];
+
+		TrainingStore store = new TrainingStore(NUMBER_RECORDS, attributes);
+		for (int i = 0; i < NUMBER_RECORDS; i++)
+			store.add(records[i], 1);
+		data = store.getAttributes();
+		columns = store.toColumns();
+
+		distance = new double[NUMBER_RECORDS];
+	}
+
+	/***************************************************************************************************/
+
+	@Benchmark
+	public double[] block() {
+		if (kernel == null) {
+			for (int i = 0, offset = 0; i < NUMBER_RECORDS; i++, offset += attributes)
+				distance[i] = DistanceKernel.squaredDistance(query, data, offset, attributes);
+		} else
+			kernel.squaredDistances(query, columns, NUMBER_RECORDS, attributes, 0, NUMBER_RECORDS, distance);
+
+		return distance;
+	}
+
+}
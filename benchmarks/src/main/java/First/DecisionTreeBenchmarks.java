@@ -0,0 +1,115 @@
+package First;
+
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// DecisionTree hot paths on training sets of 10^2 to 10^7 records: building
+// the whole tree, counting the classes of the root split, scoring the
+// attributes of the root split (evaluate, entropy) and classifying one
+// record over the compiled flat arrays or the linked Node objects.
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class DecisionTreeBenchmarks {
+
+	/***************************************************************************************************/
+
+	private static final int NUMBER_QUERIES = 1024; // power of 2
+
+	@Param({ "100", "1000", "10000", "100000", "1000000", "10000000" })
+	public int rows;
+
+	@Param({ "16" })
+	public int attributes;
+
+	@Param({ "flat", "linked" })
+	public String traversal;
+
+	private DecisionTree classifier; // loaded and built tree
+	private int[] counts; // class counts of root split
+	private int numberClasses; // classes per attribute value in counts
+	private int[][] queries; // records classified in turn
+	private int next; // next query
+
+	/***************************************************************************************************/
+
+	@Setup
+	public void setup() throws IOException {
+		classifier = new DecisionTree();
+		classifier.setSchema(SyntheticData.treeSchema(attributes));
+		classifier.setTraversal(traversal);
+		classifier.loadTrainingData(SyntheticData.treeTrainingFile(rows, attributes));
+		classifier.buildTree();
+
+		counts = classifier.countClasses(0, rows, new BitSet(attributes));
+		numberClasses = counts.length / (2 * attributes);
+		queries = SyntheticData.treeQueries(NUMBER_QUERIES, attributes);
+		next = 0;
+	}
+
+	/***************************************************************************************************/
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.MILLISECONDS)
+	public DecisionTree buildTree() {
+		classifier.buildTree();
+		return classifier;
+	}
+
+	/***************************************************************************************************/
+
+	@Benchmark
+	public int[] countClasses() {
+		return classifier.countClasses(0, rows, new BitSet(attributes));
+	}
+
+	/***************************************************************************************************/
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public double evaluate() {
+		double sum = 0;
+		for (int i = 0; i < attributes; i++)
+			sum += classifier.evaluate(counts, i, rows);
+
+		return sum;
+	}
+
+	/***************************************************************************************************/
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public double entropy() {
+		double sum = 0;
+		for (int i = 0; i < 2 * attributes; i++)
+			sum += classifier.entropy(counts, i * numberClasses, rows);
+
+		return sum;
+	}
+
+	/***************************************************************************************************/
+
+	@Benchmark
+	@OutputTimeUnit(TimeUnit.NANOSECONDS)
+	public int classify() {
+		return classifier.classify(queries[next++ & (NUMBER_QUERIES - 1)]);
+	}
+
+}
@@ -0,0 +1,89 @@
+package First;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// NearestNeighbor.distance between a query and stored records of 5 to 256
+// attributes, walking a row-major block of records like the scan does, next
+// to the squared distance kernel the scan ranks on, whole and abandoned at
+// the median squared distance of the block.
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DistanceBenchmarks {
+
+	/***************************************************************************************************/
+
+	private static final int NUMBER_RECORDS = 1024; // power of 2
+
+	@Param({ "5", "32", "256" })
+	public int attributes;
+
+	private NearestNeighbor classifier; // owner of distance
+	private double[] query; // query record
+	private double[] data; // stored records, row-major
+	private double bound; // median squared distance to stored records
+	private int next; // next stored record
+
+	/***************************************************************************************************/
+
+	@Setup
+	public void setup() {
+		classifier = new NearestNeighbor();
+
+		double[][] records = SyntheticData.knnQueries(NUMBER_RECORDS + 1, attributes);
+		query = records[NUMBER_RECORDS];
+		data = new double[NUMBER_RECORDS * attributes];
+		for (int i = 0; i < NUMBER_RECORDS; i++)
+			System.arraycopy(records[i], 0, data, i * attributes, attributes);
+
+		double[] distances = new double[NUMBER_RECORDS];
+		for (int i = 0; i < NUMBER_RECORDS; i++)
+			distances[i] = DistanceKernel.squaredDistance(query, data, i * attributes, attributes);
+		Arrays.sort(distances);
+		bound = distances[NUMBER_RECORDS / 2];
+
+		next = 0;
+	}
+
+	/***************************************************************************************************/
+
+	@Benchmark
+	public double distance() {
+		int record = next++ & (NUMBER_RECORDS - 1);
+		return classifier.distance(query, data, record * attributes);
+	}
+
+	/***************************************************************************************************/
+
+	@Benchmark
+	public double squaredDistance() {
+		int record = next++ & (NUMBER_RECORDS - 1);
+		return DistanceKernel.squaredDistance(query, data, record * attributes, attributes);
+	}
+
+	/***************************************************************************************************/
+
+	@Benchmark
+	public double boundedSquaredDistance() {
+		int record = next++ & (NUMBER_RECORDS - 1);
+		return DistanceKernel.squaredDistance(query, data, record * attributes, attributes, bound);
+	}
+
+}
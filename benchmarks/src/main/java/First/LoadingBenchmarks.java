@@ -0,0 +1,158 @@
+package First;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Scanner;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Loading training files of 10^2 to 10^7 records from text (tokenizer and
+// schema) and from the binary dataset format. Nearest neighbor loading
+// includes building the spatial index. Reading every token of the nearest
+// neighbor file is measured apart with java.util.Scanner and DataTokenizer.
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class LoadingBenchmarks {
+
+	/***************************************************************************************************/
+
+	// reader of the token benchmark, kept apart so other benchmarks do not
+	// run once per reader
+	@State(Scope.Benchmark)
+	public static class Reader {
+		@Param({ "scanner", "tokenizer" })
+		public String reader;
+	}
+
+	/***************************************************************************************************/
+
+	@Param({ "100", "1000", "10000", "100000", "1000000", "10000000" })
+	public int rows;
+
+	private String knnTextFile; // nearest neighbor training file
+	private String knnBinaryFile; // same as binary dataset
+	private String treeTextFile; // decision tree training file
+	private String treeBinaryFile; // same as binary dataset
+
+	/***************************************************************************************************/
+
+	@Setup
+	public void setup() throws IOException {
+		knnTextFile = SyntheticData.knnTrainingFile(rows, 5);
+		knnBinaryFile = knnTextFile + ".bin";
+		NearestNeighbor nearestNeighbor = newNearestNeighbor();
+		nearestNeighbor.loadTrainingData(knnTextFile);
+		nearestNeighbor.saveBinaryData(knnBinaryFile);
+
+		treeTextFile = SyntheticData.treeTrainingFile(rows, 16);
+		treeBinaryFile = treeTextFile + ".bin";
+		DecisionTree tree = newDecisionTree();
+		tree.loadTrainingData(treeTextFile);
+		tree.saveBinaryData(treeBinaryFile);
+	}
+
+	/***************************************************************************************************/
+
+	@TearDown
+	public void tearDown() {
+		new File(knnBinaryFile).delete();
+		new File(treeBinaryFile).delete();
+	}
+
+	/***************************************************************************************************/
+
+	@Benchmark
+	public NearestNeighbor knnText() throws IOException {
+		NearestNeighbor nearestNeighbor = newNearestNeighbor();
+		nearestNeighbor.loadTrainingData(knnTextFile);
+		return nearestNeighbor;
+	}
+
+	/***************************************************************************************************/
+
+	@Benchmark
+	public NearestNeighbor knnBinary() throws IOException {
+		NearestNeighbor nearestNeighbor = newNearestNeighbor();
+		nearestNeighbor.loadBinaryData(knnBinaryFile);
+		return nearestNeighbor;
+	}
+
+	/***************************************************************************************************/
+
+	@Benchmark
+	public DecisionTree treeText() throws IOException {
+		DecisionTree tree = newDecisionTree();
+		tree.loadTrainingData(treeTextFile);
+		return tree;
+	}
+
+	/***************************************************************************************************/
+
+	@Benchmark
+	public DecisionTree treeBinary() throws IOException {
+		DecisionTree tree = newDecisionTree();
+		tree.loadBinaryData(treeBinaryFile);
+		return tree;
+	}
+
+	/***************************************************************************************************/
+
+	@Benchmark
+	public int tokens(Reader reader) throws IOException {
+		if (reader.reader.equals("scanner")) {
+			Scanner inFile = new Scanner(new File(knnTextFile));
+			int count = 0;
+			while (inFile.hasNext()) {
+				inFile.next();
+				count++;
+			}
+			inFile.close();
+			return count;
+		}
+
+		DataTokenizer inFile = new DataTokenizer(knnTextFile);
+		int count = 0;
+		while (inFile.hasNext()) {
+			inFile.next();
+			count++;
+		}
+		inFile.close();
+		return count;
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns nearest neighbor classifier reading the synthetic files
+	private static NearestNeighbor newNearestNeighbor() {
+		NearestNeighbor nearestNeighbor = new NearestNeighbor();
+		nearestNeighbor.setSchema(SyntheticData.knnSchema(5));
+		return nearestNeighbor;
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns decision tree reading the synthetic files
+	private static DecisionTree newDecisionTree() {
+		DecisionTree tree = new DecisionTree();
+		tree.setSchema(SyntheticData.treeSchema(16));
+		return tree;
+	}
+
+}
@@ -0,0 +1,68 @@
+package First;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// NearestNeighbor.classify of one query against training sets of 10^2 to
+// 10^7 records, through the spatial index, the approximate search graph
+// (built in setup, which takes long for the largest sets), the lsh hash
+// tables and by brute force scan.
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class NearestNeighborBenchmarks {
+
+	/***************************************************************************************************/
+
+	private static final int NUMBER_QUERIES = 1024; // power of 2
+
+	@Param({ "100", "1000", "10000", "100000", "1000000", "10000000" })
+	public int rows;
+
+	@Param({ "5" })
+	public int attributes;
+
+	@Param({ "index", "approximate", "lsh", "brute" })
+	public String searchMode;
+
+	private NearestNeighbor classifier; // loaded classifier
+	private double[][] queries; // records classified in turn
+	private int next; // next query
+
+	/***************************************************************************************************/
+
+	@Setup
+	public void setup() throws IOException {
+		classifier = new NearestNeighbor();
+		classifier.setSchema(SyntheticData.knnSchema(attributes));
+		classifier.setSearchMode(searchMode);
+		classifier.loadTrainingData(SyntheticData.knnTrainingFile(rows, attributes));
+
+		queries = SyntheticData.knnQueries(NUMBER_QUERIES, attributes);
+		next = 0;
+	}
+
+	/***************************************************************************************************/
+
+	@Benchmark
+	public int classify() {
+		return classifier.classify(queries[next++ & (NUMBER_QUERIES - 1)]);
+	}
+
+}
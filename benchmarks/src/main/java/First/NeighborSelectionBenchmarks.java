@@ -0,0 +1,88 @@
+package First;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// NearestNeighbor.nearestNeighbor selecting k = 5 of 10^2 to 10^7 distances
+// with each selection mode. Selection reorders its arrays, so every call
+// first copies the distances back; copyOnly measures that copy alone.
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class NeighborSelectionBenchmarks {
+
+	/***************************************************************************************************/
+
+	@Param({ "100", "1000", "10000", "100000", "1000000", "10000000" })
+	public int rows;
+
+	@Param({ "auto", "heap", "quickselect" })
+	public String selectionMode;
+
+	private NearestNeighbor classifier; // loaded classifier
+	private double[] distances; // distances of one query to all records
+	private double[] distance; // working copy of distances
+	private int[] id; // working ids
+
+	/***************************************************************************************************/
+
+	@Setup
+	public void setup() throws IOException {
+		classifier = new NearestNeighbor();
+		classifier.setSchema(SyntheticData.knnSchema(5));
+		classifier.setSelectionMode(selectionMode);
+		classifier.loadTrainingData(SyntheticData.knnTrainingFile(rows, 5));
+
+		Random random = new Random(rows);
+		distances = new double[rows];
+		for (int i = 0; i < rows; i++)
+			distances[i] = random.nextDouble();
+
+		distance = new double[rows];
+		id = new int[rows];
+	}
+
+	/***************************************************************************************************/
+
+	@Benchmark
+	public int[] nearestNeighbor() {
+		copy();
+		classifier.nearestNeighbor(distance, id);
+		return id;
+	}
+
+	/***************************************************************************************************/
+
+	@Benchmark
+	public int[] copyOnly() {
+		copy();
+		return id;
+	}
+
+	/***************************************************************************************************/
+
+	// restore distances and ids
+	private void copy() {
+		System.arraycopy(distances, 0, distance, 0, rows);
+		for (int i = 0; i < rows; i++)
+			id[i] = i;
+	}
+
+}
@@ -0,0 +1,186 @@
+package First;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Random;
+
+// Synthetic training files for the benchmarks, written once per size to the
+// temporary directory and reused by later runs. Nearest neighbor files have
+// numeric attributes in [0, 1] clustered around one center per class;
+// decision tree files have 0/1 attributes and a class decided by the first
+// attributes with some noise. Both come with a schema that reads them.
+
+final class SyntheticData {
+
+	/***************************************************************************************************/
+
+	private static final int NUMBER_CLASSES = 3;
+	private static final double NOISE = 0.1; // share of records with random class
+	private static final File DIRECTORY = new File(System.getProperty("java.io.tmpdir"), "machine-learning-benchmarks");
+
+	/***************************************************************************************************/
+
+	private SyntheticData() {
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns nearest neighbor training file of given size, k = 5
+	// and weighted majority rule
+	static String knnTrainingFile(int rows, int attributes) throws IOException {
+		File file = new File(DIRECTORY, "knn-" + rows + "-" + attributes + ".txt");
+		if (file.exists())
+			return file.getPath();
+
+		DIRECTORY.mkdirs();
+		File partial = new File(DIRECTORY, file.getName() + ".part");
+		Random random = new Random(rows * 31L + attributes);
+		double[][] centers = centers(attributes, new Random(attributes));
+
+		BufferedWriter out = new BufferedWriter(new FileWriter(partial), 1 << 16);
+		out.write(rows + " " + attributes + " " + NUMBER_CLASSES + "\n\n5 weighted\n\n");
+		for (int i = 0; i < rows; i++) {
+			int className = random.nextInt(NUMBER_CLASSES);
+			double[] record = point(centers[className], random);
+			for (int j = 0; j < attributes; j++) {
+				out.write(Double.toString(record[j]));
+				out.write(' ');
+			}
+			if (random.nextDouble() < NOISE)
+				className = random.nextInt(NUMBER_CLASSES);
+			out.write("c" + (className + 1));
+			out.write('\n');
+		}
+		out.close();
+
+		// only complete files are reused
+		partial.renameTo(file);
+		return file.getPath();
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns query records drawn like the training records
+	static double[][] knnQueries(int count, int attributes) {
+		Random random = new Random(-attributes);
+		double[][] centers = centers(attributes, new Random(attributes));
+
+		double[][] queries = new double[count][];
+		for (int i = 0; i < count; i++)
+			queries[i] = point(centers[random.nextInt(NUMBER_CLASSES)], random);
+
+		return queries;
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns schema of nearest neighbor files
+	static DatasetSchema knnSchema(int attributes) {
+		DatasetSchema schema = new DatasetSchema(attributes);
+		for (int j = 1; j <= attributes; j++)
+			schema.setNumeric(j, 0, 1);
+		schema.setClasses(classLabels());
+
+		return schema;
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns decision tree training file of given size
+	static String treeTrainingFile(int rows, int attributes) throws IOException {
+		File file = new File(DIRECTORY, "tree-" + rows + "-" + attributes + ".txt");
+		if (file.exists())
+			return file.getPath();
+
+		DIRECTORY.mkdirs();
+		File partial = new File(DIRECTORY, file.getName() + ".part");
+		Random random = new Random(rows * 37L + attributes);
+
+		BufferedWriter out = new BufferedWriter(new FileWriter(partial), 1 << 16);
+		out.write(rows + " " + attributes + " " + NUMBER_CLASSES + "\n\n");
+		int[] record = new int[attributes];
+		for (int i = 0; i < rows; i++) {
+			for (int j = 0; j < attributes; j++) {
+				record[j] = random.nextInt(2);
+				out.write(record[j] == 0 ? "0 " : "1 ");
+			}
+
+			// class from the first attributes, some records get a random one
+			int className = (record[0] + record[1 % attributes] * (1 + record[2 % attributes])) % NUMBER_CLASSES;
+			if (random.nextDouble() < NOISE)
+				className = random.nextInt(NUMBER_CLASSES);
+			out.write("c" + (className + 1));
+			out.write('\n');
+		}
+		out.close();
+
+		// only complete files are reused
+		partial.renameTo(file);
+		return file.getPath();
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns decision tree test records drawn like the training
+	// records
+	static int[][] treeQueries(int count, int attributes) {
+		Random random = new Random(-attributes);
+
+		int[][] queries = new int[count][attributes];
+		for (int i = 0; i < count; i++)
+			for (int j = 0; j < attributes; j++)
+				queries[i][j] = random.nextInt(2);
+
+		return queries;
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns schema of decision tree files, label 0 is 0 and any
+	// other label 1
+	static DatasetSchema treeSchema(int attributes) {
+		DatasetSchema schema = new DatasetSchema(attributes);
+		for (int j = 1; j <= attributes; j++)
+			schema.setCategorical(j, new String[] { "0" }, new double[] { 0 }, 1);
+		schema.setClasses(classLabels());
+
+		return schema;
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns class labels c1, c2, ...
+	private static String[] classLabels() {
+		String[] labels = new String[NUMBER_CLASSES];
+		for (int c = 0; c < NUMBER_CLASSES; c++)
+			labels[c] = "c" + (c + 1);
+
+		return labels;
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns one random center per class
+	private static double[][] centers(int attributes, Random random) {
+		double[][] centers = new double[NUMBER_CLASSES][attributes];
+		for (int c = 0; c < NUMBER_CLASSES; c++)
+			for (int j = 0; j < attributes; j++)
+				centers[c][j] = 0.2 + 0.6 * random.nextDouble();
+
+		return centers;
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns a point near given center, clamped to [0, 1]
+	private static double[] point(double[] center, Random random) {
+		double[] point = new double[center.length];
+		for (int j = 0; j < center.length; j++)
+			point[j] = Math.min(1, Math.max(0, center[j] + 0.15 * random.nextGaussian()));
+
+		return point;
+	}
+
+}
@@ -0,0 +1,314 @@
+package First;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// The decision tree built on bitsets and index ranges (DecisionTree) against
+// the original builder on record lists (DecisionTree1), and every other way
+// of building or walking a tree against the plain one: flat and linked
+// traversal, parallel and sequential building, text and binary loading,
+// default and learned schemas.
+
+public class DecisionTreeEquivalenceTest {
+
+	/***************************************************************************************************/
+
+	private static final int RECORDS = 3000; // large enough for the popcount path
+	private static final int ATTRIBUTES = 10;
+	private static final int CLASSES = 3;
+
+	@TempDir
+	Path directory;
+
+	private String trainingFile; // binary attributes, classes 1..CLASSES
+	private int[][] queries; // every combination of attribute values
+
+	/***************************************************************************************************/
+
+	@BeforeEach
+	public void setUp() throws IOException {
+		trainingFile = directory.resolve("training").toString();
+
+		// class follows a few attributes, with noise so the tree is deep
+		Random random = new Random(17);
+		try (PrintWriter out = new PrintWriter(trainingFile)) {
+			out.println(RECORDS + " " + ATTRIBUTES + " " + CLASSES + "\n");
+			for (int i = 0; i < RECORDS; i++) {
+				int[] attributes = new int[ATTRIBUTES];
+				for (int j = 0; j < ATTRIBUTES; j++) {
+					attributes[j] = random.nextInt(2);
+					out.print(attributes[j] + " ");
+				}
+
+				int className = 1 + (attributes[0] + attributes[3] + attributes[7] * attributes[1]) % CLASSES;
+				if (random.nextInt(5) == 0)
+					className = 1 + random.nextInt(CLASSES);
+				out.println(className);
+			}
+		}
+
+		queries = new int[1 << ATTRIBUTES][ATTRIBUTES];
+		for (int q = 0; q < queries.length; q++)
+			for (int j = 0; j < ATTRIBUTES; j++)
+				queries[q][j] = (q >>> j) & 1;
+	}
+
+	/***************************************************************************************************/
+
+	@Test
+	public void bitsetTreeMatchesRecordListTree() throws Exception {
+		DecisionTree tree = newDecisionTree();
+		tree.loadTrainingData(trainingFile);
+		tree.buildTree();
+
+		DecisionTree1 original = new DecisionTree1();
+		original.loadTrainingData(trainingFile);
+		original.buildTree();
+
+		String testFile = writeTestFile();
+		String classifiedFile = directory.resolve("classified1").toString();
+		quietly(() -> {
+			original.classifyData(testFile, classifiedFile);
+			return null;
+		});
+
+		// lines are "Class: c\tConfidence ..." and a confidence line
+		List<String> lines = Files.readAllLines(Path.of(classifiedFile));
+		for (int q = 0; q < queries.length; q++) {
+			String line = lines.get(2 * q);
+			int expected = Integer.parseInt(line.substring("Class: ".length(), line.indexOf('\t')));
+			assertEquals(expected, tree.classify(queries[q]), "query " + q);
+		}
+	}
+
+	/***************************************************************************************************/
+
+	@Test
+	public void flatAndLinkedTraversalAgree() throws IOException {
+		DecisionTree tree = newDecisionTree();
+		tree.loadTrainingData(trainingFile);
+		tree.buildTree();
+
+		int[] flat = classifyAll(tree);
+		tree.setTraversal("linked");
+		int[] linked = classifyAll(tree);
+
+		assertArrayEquals(flat, linked);
+	}
+
+	/***************************************************************************************************/
+
+	@Test
+	public void binaryLoadingBuildsSameTree() throws IOException {
+		DecisionTree text = newDecisionTree();
+		text.loadTrainingData(trainingFile);
+		text.buildTree();
+
+		String binaryFile = directory.resolve("training.bin").toString();
+		text.saveBinaryData(binaryFile);
+
+		DecisionTree binary = newDecisionTree();
+		binary.loadBinaryData(binaryFile);
+		binary.buildTree();
+
+		assertArrayEquals(classifyAll(text), classifyAll(binary));
+	}
+
+	/***************************************************************************************************/
+
+	@Test
+	public void binaryLoadingRejectsNearestNeighborFile() throws IOException {
+		String binaryFile = directory.resolve("knn.bin").toString();
+		BinaryDataset.write(binaryFile, 1, 1, "weighted", new double[][] { { 0.5 } }, new int[] { 1 });
+
+		assertThrows(IOException.class, () -> newDecisionTree().loadBinaryData(binaryFile));
+	}
+
+	/***************************************************************************************************/
+
+	@Test
+	public void parallelBuildMatchesSequentialBuild() throws Exception {
+		String testFile = writeTestFile();
+
+		String sequentialFile = directory.resolve("sequential").toString();
+		String parallelFile = directory.resolve("parallel").toString();
+		double[] errorRates = new double[2];
+
+		quietly(() -> {
+			DecisionTree1 sequential = new DecisionTree1();
+			sequential.loadTrainingData(trainingFile);
+			sequential.buildTree();
+			sequential.classifyData(testFile, sequentialFile);
+
+			DecisionTree1 parallel = new DecisionTree1();
+			parallel.setParallelism(4);
+			parallel.setParallelThreshold(64);
+			parallel.loadTrainingData(trainingFile);
+			parallel.buildTree();
+			parallel.classifyData(testFile, parallelFile);
+			return null;
+		});
+
+		assertEquals(Files.readAllLines(Path.of(sequentialFile)), Files.readAllLines(Path.of(parallelFile)));
+
+		// leave one out on a small file, every cut-out tree on one pool
+		String smallFile = "../Decision-tree/case1/DT_trainingFile1";
+		quietly(() -> {
+			DecisionTree1 sequential = new DecisionTree1();
+			sequential.loadTrainingData(smallFile);
+			errorRates[0] = sequential.leaveOneOutValidation(smallFile);
+
+			DecisionTree1 parallel = new DecisionTree1();
+			parallel.setParallelism(4);
+			parallel.setParallelThreshold(1);
+			parallel.loadTrainingData(smallFile);
+			errorRates[1] = parallel.leaveOneOutValidation(smallFile);
+			return null;
+		});
+
+		assertEquals(errorRates[0], errorRates[1]);
+	}
+
+	/***************************************************************************************************/
+
+	@Test
+	public void heldOutValidationMatchesSequentialRun() throws Exception {
+		String file = "../Decision-tree/case2/DT_trainingFile2";
+
+		for (String rule : new String[] { "Gini", "Class", "Shannon" }) {
+			double[] errorRates = new double[4];
+
+			quietly(() -> {
+				DecisionTree2 sequential = new DecisionTree2();
+				sequential.setEntropyRule(rule);
+				sequential.loadTrainingData(file);
+				errorRates[0] = sequential.leaveOneOutValidation(file);
+				errorRates[1] = sequential.crossValidation(file, 5, "stratified");
+
+				DecisionTree2 parallel = new DecisionTree2();
+				parallel.setEntropyRule(rule);
+				parallel.setParallelism(4);
+				parallel.loadTrainingData(file);
+				errorRates[2] = parallel.leaveOneOutValidation(file);
+				errorRates[3] = parallel.crossValidation(file, 5, "stratified");
+				return null;
+			});
+
+			assertEquals(errorRates[0], errorRates[2], rule);
+			assertEquals(errorRates[1], errorRates[3], rule);
+		}
+	}
+
+	/***************************************************************************************************/
+
+	@Test
+	public void learnedSchemaBuildsSameTreeAsDefaultSchema() throws Exception {
+		String file = "../Decision-tree/case2/DT_trainingFile2";
+		String testFile = "../Decision-tree/case2/DT_testFile2";
+		String defaultFile = directory.resolve("default").toString();
+		String learnedFile = directory.resolve("learned").toString();
+
+		quietly(() -> {
+			DecisionTree2 standard = new DecisionTree2();
+			standard.loadTrainingData(file);
+			standard.buildTree();
+			standard.classifyData(testFile, defaultFile);
+
+			DecisionTree2 learned = new DecisionTree2();
+			learned.setSchema(DatasetSchema.learnBinary(file));
+			learned.loadTrainingData(file);
+			learned.buildTree();
+			learned.classifyData(testFile, learnedFile);
+			return null;
+		});
+
+		assertEquals(Files.readAllLines(Path.of(defaultFile)), Files.readAllLines(Path.of(learnedFile)));
+	}
+
+	/***************************************************************************************************/
+
+	@Test
+	public void nonBinarySchemaIsRejected() {
+		DatasetSchema schema = new DatasetSchema(1);
+		schema.setNumeric(1, 0, 10);
+
+		assertThrows(IllegalArgumentException.class, () -> new DecisionTree2().setSchema(schema));
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns tree reading the synthetic files: 0 and 1 labels,
+	// classes 1..CLASSES
+	private static DecisionTree newDecisionTree() {
+		DatasetSchema schema = new DatasetSchema(ATTRIBUTES);
+		for (int j = 1; j <= ATTRIBUTES; j++)
+			schema.setCategorical(j, new String[] { "0", "1" }, new double[] { 0, 1 }, 0);
+
+		String[] classes = new String[CLASSES];
+		for (int c = 0; c < CLASSES; c++)
+			classes[c] = String.valueOf(c + 1);
+		schema.setClasses(classes);
+
+		DecisionTree tree = new DecisionTree();
+		tree.setSchema(schema);
+		return tree;
+	}
+
+	/***************************************************************************************************/
+
+	// Method classifies every query
+	private int[] classifyAll(DecisionTree tree) {
+		int[] classes = new int[queries.length];
+		for (int q = 0; q < queries.length; q++)
+			classes[q] = tree.classify(queries[q]);
+
+		return classes;
+	}
+
+	/***************************************************************************************************/
+
+	// Method writes the queries as a test file
+	private String writeTestFile() throws IOException {
+		String testFile = directory.resolve("test").toString();
+		try (PrintWriter out = new PrintWriter(testFile)) {
+			out.println(queries.length + "\n");
+			for (int[] query : queries) {
+				for (int value : query)
+					out.print(value + " ");
+				out.println();
+			}
+		}
+
+		return testFile;
+	}
+
+	/***************************************************************************************************/
+
+	// Method runs classifier code that reports on standard output without
+	// the report
+	private static void quietly(Callable<Void> code) throws Exception {
+		PrintStream out = System.out;
+		System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+		try {
+			code.call();
+		} finally {
+			System.setOut(out);
+		}
+	}
+
+}
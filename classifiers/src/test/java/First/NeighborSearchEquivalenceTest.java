@@ -0,0 +1,363 @@
+package First;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// Every exact nearest neighbor search against a full scan that sorts all
+// records by distance, then record id: the KD-tree and the ball tree under
+// every metric, the tiled batch search, the selection modes, and the
+// classifier in index and brute mode with either kernel, also after its
+// records are reloaded. Attributes are drawn from a coarse grid so that many
+// distances tie.
+
+public class NeighborSearchEquivalenceTest {
+
+	/***************************************************************************************************/
+
+	private static final String[] METRICS = { "euclidean", "squared", "manhattan", "chebyshev", "hamming", "gower",
+			"mixed" };
+
+	@TempDir
+	Path directory;
+
+	/***************************************************************************************************/
+
+	@Test
+	public void spatialIndexesMatchFullScan() {
+		for (int dimensions : new int[] { 3, 12 }) {
+			Random random = new Random(dimensions);
+			double[] data = gridPoints(random, 1500, dimensions);
+			double[][] queries = gridRows(random, 100, dimensions);
+
+			boolean[] categorical = new boolean[dimensions];
+			for (int j = 0; j < dimensions; j += 3)
+				categorical[j] = true;
+
+			for (String name : METRICS) {
+				DistanceMetric metric = DistanceMetric.forName(name, categorical);
+				NeighborIndex[] indexes = { new KDTree(data, 1500, dimensions, metric),
+						new BallTree(data, 1500, dimensions, metric) };
+
+				for (NeighborIndex index : indexes)
+					for (int k : new int[] { 1, 7, 40 })
+						for (double[] query : queries) {
+							double[] distance = new double[k];
+							int[] id = new int[k];
+							int count = index.search(query, k, distance, id);
+
+							String what = name + " " + index.getClass().getSimpleName() + " k=" + k;
+							Neighbors expected = fullScan(metric, data, dimensions, query, k, -1);
+							assertEquals(expected.id.length, count, what);
+							assertArrayEquals(expected.distance, distance, what);
+							assertArrayEquals(expected.id, id, what);
+						}
+			}
+		}
+	}
+
+	/***************************************************************************************************/
+
+	@Test
+	public void tiledSearchMatchesFullScan() {
+		int dimensions = 6;
+		Random random = new Random(3);
+		double[] data = gridPoints(random, 700, dimensions);
+		double[][] rows = new double[700][];
+		for (int i = 0; i < rows.length; i++)
+			rows[i] = Arrays.copyOfRange(data, i * dimensions, (i + 1) * dimensions);
+		double[][] queries = gridRows(random, 90, dimensions);
+
+		for (String name : new String[] { "euclidean", "manhattan" }) {
+			DistanceMetric metric = DistanceMetric.forName(name, new boolean[dimensions]);
+			TiledNeighborSearch search = new TiledNeighborSearch(rows, dimensions, metric);
+
+			for (int k : new int[] { 1, 9 }) {
+				double[][] distance = new double[queries.length][k];
+				int[][] id = new int[queries.length][k];
+				search.search(queries, k, distance, id);
+
+				for (int q = 0; q < queries.length; q++) {
+					Neighbors expected = fullScan(metric, data, dimensions, queries[q], k, -1);
+					assertArrayEquals(expected.id, id[q], name + " query " + q);
+					assertArrayEquals(expected.distance, distance[q], name + " query " + q);
+				}
+
+				// every record against the others
+				distance = new double[rows.length][k];
+				id = new int[rows.length][k];
+				search.searchOthers(k, distance, id);
+
+				for (int i = 0; i < rows.length; i++) {
+					Neighbors expected = fullScan(metric, data, dimensions, rows[i], k, i);
+					assertArrayEquals(expected.id, id[i], name + " record " + i);
+					assertArrayEquals(expected.distance, distance[i], name + " record " + i);
+				}
+			}
+		}
+	}
+
+	/***************************************************************************************************/
+
+	@Test
+	public void selectionModesMatchSort() {
+		Random random = new Random(11);
+
+		for (int n : new int[] { 1, 10, 100, 2000 })
+			for (int k : new int[] { 1, 3, 50, 250, 5000 })
+				for (String mode : new String[] { "heap", "quickselect", "auto" }) {
+					double[] distance = new double[n];
+					int[] id = new int[n];
+					for (int i = 0; i < n; i++) {
+						distance[i] = random.nextInt(20); // many ties
+						id[i] = random.nextInt(n) * 7 + i % 7; // unique, not in order
+					}
+
+					// reference: sort (distance, id) pairs
+					Integer[] order = new Integer[n];
+					for (int i = 0; i < n; i++)
+						order[i] = i;
+					double[] keys = distance.clone();
+					int[] ids = id.clone();
+					Arrays.sort(order, (a, b) -> keys[a] != keys[b] ? Double.compare(keys[a], keys[b])
+							: Integer.compare(ids[a], ids[b]));
+
+					int count = NeighborSelector.select(distance, id, n, k, mode);
+
+					String what = mode + " n=" + n + " k=" + k;
+					assertEquals(Math.min(n, k), count, what);
+					for (int i = 0; i < count; i++) {
+						assertEquals(keys[order[i]], distance[i], what);
+						assertEquals(ids[order[i]], id[i], what);
+					}
+				}
+	}
+
+	/***************************************************************************************************/
+
+	@Test
+	public void classifierModesAgree() throws IOException {
+		int dimensions = 5;
+		Random random = new Random(29);
+
+		String trainingFile = writeTrainingFile("training", random, 2500, dimensions);
+		String testFile = writeTestFile(random, 400, dimensions);
+		DatasetSchema schema = numericSchema(dimensions);
+
+		NearestNeighbor classifier = new NearestNeighbor();
+		classifier.setSchema(schema);
+		classifier.loadTrainingData(trainingFile);
+
+		// reference: brute force scan, every distance sorted
+		classifier.setSearchMode("brute");
+		classifier.setSelectionMode("quickselect");
+		List<String> expected = classify(classifier, testFile);
+
+		for (String kernel : new String[] { "scalar", "vector" })
+			for (String search : new String[] { "index", "brute" })
+				for (String selection : new String[] { "auto", "heap", "quickselect" }) {
+					classifier.setKernelMode(kernel);
+					classifier.setSearchMode(search);
+					classifier.setSelectionMode(selection);
+
+					assertEquals(expected, classify(classifier, testFile), kernel + " " + search + " " + selection);
+				}
+
+		// same records from the binary dataset format
+		String binaryFile = directory.resolve("training.bin").toString();
+		classifier.saveBinaryData(binaryFile);
+
+		NearestNeighbor binary = new NearestNeighbor();
+		binary.setSchema(schema);
+		binary.loadBinaryData(binaryFile);
+		assertEquals(expected, classify(binary, testFile));
+	}
+
+	/***************************************************************************************************/
+
+	@Test
+	public void blockKernelFollowsReloadedRecords() throws IOException {
+		int dimensions = 5;
+		Random random = new Random(31);
+		String smallFile = writeTrainingFile("small", random, 300, dimensions);
+		String largeFile = writeTrainingFile("large", random, 2000, dimensions);
+		String testFile = writeTestFile(random, 200, dimensions);
+
+		// each file on its own, scalar brute force scan
+		List<String> expectedSmall = classify(bruteClassifier("scalar", smallFile, dimensions), testFile);
+		List<String> expectedLarge = classify(bruteClassifier("scalar", largeFile, dimensions), testFile);
+
+		// block kernel, larger records loaded over smaller ones
+		NearestNeighbor growing = bruteClassifier("vector", smallFile, dimensions);
+		assertEquals(expectedSmall, classify(growing, testFile));
+		growing.loadTrainingData(largeFile);
+		assertEquals(expectedLarge, classify(growing, testFile));
+
+		// block kernel, smaller records loaded over larger ones
+		NearestNeighbor shrinking = bruteClassifier("vector", largeFile, dimensions);
+		assertEquals(expectedLarge, classify(shrinking, testFile));
+		shrinking.loadTrainingData(smallFile);
+		assertEquals(expectedSmall, classify(shrinking, testFile));
+
+		// and from the binary format
+		String binaryFile = directory.resolve("small.bin").toString();
+		bruteClassifier("scalar", smallFile, dimensions).saveBinaryData(binaryFile);
+		NearestNeighbor binary = bruteClassifier("vector", largeFile, dimensions);
+		binary.loadBinaryData(binaryFile);
+		assertEquals(expectedSmall, classify(binary, testFile));
+	}
+
+	/***************************************************************************************************/
+
+	@Test
+	public void schemaIsFixedOnceLoaded() throws IOException {
+		int dimensions = 5;
+		String trainingFile = writeTrainingFile("training", new Random(37), 100, dimensions);
+		NearestNeighbor classifier = bruteClassifier("scalar", trainingFile, dimensions);
+
+		assertThrows(IllegalStateException.class, () -> classifier.setSchema(numericSchema(dimensions)));
+	}
+
+	/***************************************************************************************************/
+
+	// Neighbors found by a full scan
+	private static class Neighbors {
+		private double[] distance; // distances in ascending order
+		private int[] id; // ids, ties broken by id
+	}
+
+	/***************************************************************************************************/
+
+	// Method finds the k nearest points to query by sorting all points but
+	// the excluded one (-1 if none) by distance, then id
+	private static Neighbors fullScan(DistanceMetric metric, double[] data, int dimensions, double[] query, int k,
+			int excluded) {
+		int numberPoints = data.length / dimensions;
+		Integer[] order = new Integer[numberPoints];
+		double[] rank = new double[numberPoints];
+		for (int i = 0; i < numberPoints; i++) {
+			order[i] = i;
+			rank[i] = metric.rank(query, data, i * dimensions, dimensions, Double.POSITIVE_INFINITY);
+		}
+		Arrays.sort(order, (a, b) -> rank[a] != rank[b] ? Double.compare(rank[a], rank[b]) : Integer.compare(a, b));
+
+		int count = Math.min(k, excluded < 0 ? numberPoints : numberPoints - 1);
+		Neighbors neighbors = new Neighbors();
+		neighbors.distance = new double[count];
+		neighbors.id = new int[count];
+		for (int i = 0, found = 0; found < count; i++) {
+			if (order[i] == excluded)
+				continue;
+			neighbors.distance[found] = metric.distance(rank[order[i]]);
+			neighbors.id[found] = order[i];
+			found++;
+		}
+
+		return neighbors;
+	}
+
+	/***************************************************************************************************/
+
+	// Method draws points row-major with attributes on a grid of [0, 1]
+	private static double[] gridPoints(Random random, int numberPoints, int dimensions) {
+		double[] data = new double[numberPoints * dimensions];
+		for (int i = 0; i < data.length; i++)
+			data[i] = random.nextInt(5) / 4.0;
+
+		return data;
+	}
+
+	// Method draws rows with attributes on a grid of [0, 1]
+	private static double[][] gridRows(Random random, int numberRows, int dimensions) {
+		double[][] rows = new double[numberRows][dimensions];
+		for (double[] row : rows)
+			for (int j = 0; j < dimensions; j++)
+				row[j] = random.nextInt(5) / 4.0;
+
+		return rows;
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns schema of the synthetic files: numbers in [0, 1],
+	// classes c1..c3
+	private static DatasetSchema numericSchema(int dimensions) {
+		DatasetSchema schema = new DatasetSchema(dimensions);
+		for (int j = 1; j <= dimensions; j++)
+			schema.setNumeric(j, 0, 1);
+		schema.setClasses(new String[] { "c1", "c2", "c3" });
+
+		return schema;
+	}
+
+	/***************************************************************************************************/
+
+	// Method returns classifier searching by brute force with given kernel,
+	// loaded from training file
+	private static NearestNeighbor bruteClassifier(String kernel, String trainingFile, int dimensions)
+			throws IOException {
+		NearestNeighbor classifier = new NearestNeighbor();
+		classifier.setSchema(numericSchema(dimensions));
+		classifier.setSearchMode("brute");
+		classifier.setKernelMode(kernel);
+		classifier.loadTrainingData(trainingFile);
+
+		return classifier;
+	}
+
+	/***************************************************************************************************/
+
+	// Method writes training file of grid records with random classes, 7
+	// neighbors weighted
+	private String writeTrainingFile(String name, Random random, int numberRecords, int dimensions)
+			throws IOException {
+		String trainingFile = directory.resolve(name).toString();
+		try (PrintWriter out = new PrintWriter(trainingFile)) {
+			out.println(numberRecords + " " + dimensions + " 3\n\n7 weighted\n");
+			for (double[] row : gridRows(random, numberRecords, dimensions)) {
+				for (double value : row)
+					out.print(value + " ");
+				out.println("c" + (1 + random.nextInt(3)));
+			}
+		}
+
+		return trainingFile;
+	}
+
+	// Method writes test file of grid records
+	private String writeTestFile(Random random, int numberRecords, int dimensions) throws IOException {
+		String testFile = directory.resolve("test").toString();
+		try (PrintWriter out = new PrintWriter(testFile)) {
+			out.println(numberRecords + "\n");
+			for (double[] row : gridRows(random, numberRecords, dimensions)) {
+				for (double value : row)
+					out.print(value + " ");
+				out.println();
+			}
+		}
+
+		return testFile;
+	}
+
+	/***************************************************************************************************/
+
+	// Method classifies test file and returns the classes written
+	private List<String> classify(NearestNeighbor classifier, String testFile) throws IOException {
+		String classifiedFile = directory.resolve("classified").toString();
+		classifier.classifyData(testFile, classifiedFile);
+
+		return Files.readAllLines(Path.of(classifiedFile));
+	}
+
+}